@@ -325,12 +325,28 @@ public class Properties {
     public enum RankingType {
         // Preference sorting is the ranking strategy proposed in
         PREFERENCE_SORTING,
-        FAST_NON_DOMINATED_SORTING
+        FAST_NON_DOMINATED_SORTING,
+        // Same fronts as FAST_NON_DOMINATED_SORTING, computed with the efficient non-dominated sort
+        EFFICIENT_NON_DOMINATED_SORTING,
+        // Same fronts as FAST_NON_DOMINATED_SORTING, with the dominance comparisons computed in parallel
+        PARALLEL_NON_DOMINATED_SORTING,
+        // Same as PARALLEL_NON_DOMINATED_SORTING, reusing the dominance relation of the previous generation
+        INCREMENTAL_NON_DOMINATED_SORTING
     }
 
     @Parameter(key = "ranking_type", group = "Runtime", description = "type of ranking to use in MOSA")
     public static RankingType RANKING_TYPE = RankingType.PREFERENCE_SORTING;
 
+    @Parameter(key = "ranking_threads", group = "Runtime", description = "Number of threads used by the parallel ranking strategies (0 = one per available processor)")
+    @IntValue(min = 0)
+    public static int RANKING_THREADS = 0;
+
+    @Parameter(key = "parallel_crowding_distance", group = "Runtime", description = "Compute the subvector-dominance and epsilon-dominance crowding distances of large fronts in parallel, with ranking_threads threads")
+    public static boolean PARALLEL_CROWDING_DISTANCE = false;
+
+    @Parameter(key = "parallel_preference_sorting", group = "Runtime", description = "Build the first front of the preference sorting of MOSA in parallel for many goals, with ranking_threads threads. The front does not depend on this setting")
+    public static boolean PARALLEL_PREFERENCE_SORTING = false;
+
     public enum MapElitesChoice {
         ALL,
         SINGLE,
@@ -1347,7 +1363,7 @@ public class Properties {
     public static TestFactory TEST_FACTORY = TestFactory.ARCHIVE;
 
     public enum ArchiveType {
-        COVERAGE, MIO
+        COVERAGE, MIO, CONCURRENT_COVERAGE
     }
 
     /**
@@ -1479,6 +1495,38 @@ public class Properties {
     @Parameter(key = "max_loop_iterations", group = "Test Execution", description = "Max number of iterations allowed per loop. A negative value means no check is done.")
     public static long MAX_LOOP_ITERATIONS = RuntimeSettings.maxNumberOfIterationsPerLoop;
 
+    @Parameter(key = "incremental_execution", group = "Test Execution", description = "Reuse the execution of a parent for an offspring that only differs from it after the statement at which the execution of the parent stopped")
+    public static boolean INCREMENTAL_EXECUTION = false;
+
+    @Parameter(key = "execution_result_cache_size", group = "Test Execution", description = "Maximum number of execution results cached by test structure to avoid re-executing identical tests (0 to disable)")
+    @IntValue(min = 0)
+    public static int EXECUTION_RESULT_CACHE_SIZE = 0;
+
+    @Parameter(key = "adaptive_timeout", group = "Test Execution", description = "Derive the timeout of each test from the execution times observed so far for the methods of the class under test it calls, using the 'timeout' as upper bound")
+    public static boolean ADAPTIVE_TIMEOUT = false;
+
+    @Parameter(key = "adaptive_timeout_percentile", group = "Test Execution", description = "Percentile of the observed execution times used as adaptive timeout")
+    @DoubleValue(min = 0.5, max = 1.0)
+    public static double ADAPTIVE_TIMEOUT_PERCENTILE = 0.99;
+
+    @Parameter(key = "adaptive_timeout_margin", group = "Test Execution", description = "Milliseconds added to the percentile of the observed execution times to get the adaptive timeout")
+    @IntValue(min = 0)
+    public static int ADAPTIVE_TIMEOUT_MARGIN = 500;
+
+    @Parameter(key = "forked_execution_workers", group = "Test Execution", description = "Number of forked worker JVMs used to run tests out of process, so that a stuck test only costs a worker restart (0 to run tests in the search JVM)")
+    @IntValue(min = 0)
+    public static int FORKED_EXECUTION_WORKERS = 0;
+
+    @Parameter(key = "forked_worker_jvm_args", group = "Test Execution", description = "Additional JVM arguments passed to the forked execution workers, separated by spaces")
+    public static String FORKED_WORKER_JVM_ARGS = "";
+
+    @Parameter(key = "pipelined_breeding", group = "Test Execution", description = "In MOSA, execute each offspring on the execution workers as soon as it is bred, while the next offspring are being bred. Offspring are then bred before the archive and the test cluster reflect the offspring still in flight, and the search budget can be exceeded by up to breeding_pipeline_depth executions")
+    public static boolean PIPELINED_BREEDING = false;
+
+    @Parameter(key = "breeding_pipeline_depth", group = "Test Execution", description = "Maximum number of offspring waiting for or under execution in pipelined breeding (0 = twice the number of execution workers)")
+    @IntValue(min = 0)
+    public static int BREEDING_PIPELINE_DEPTH = 0;
+
     // ---------------------------------------------------------------
     // Debugging
 
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.coverage.branch;
+
+import org.evosuite.Properties;
+import org.evosuite.coverage.ControlFlowDistance;
+import org.evosuite.ga.GoalRegistry;
+import org.evosuite.ga.archive.Archive;
+import org.evosuite.testcase.BatchFitnessEvaluator;
+import org.evosuite.testcase.TestChromosome;
+import org.evosuite.testcase.TestFitnessFunction;
+import org.evosuite.testcase.execution.BranchDistanceIndex;
+import org.evosuite.testcase.execution.ExecutionResult;
+import org.evosuite.utils.ArrayUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Evaluates all the {@link BranchCoverageTestFitness} goals of a test against
+ * the {@link BranchDistanceIndex} of its execution, which is built in one pass
+ * over its trace.
+ * </p>
+ *
+ * <p>
+ * A branch that was reached during the execution has approach level 0, and its
+ * fitness only depends on the minimal branch distance recorded by the trace.
+ * The same holds for the root branch of a method that was executed. These
+ * goals are settled here with a lookup in the index each. The distance of a branch that was
+ * not reached depends on the control dependencies of the branch, so such goals
+ * are left to {@link BranchCoverageTestFitness#getFitness(TestChromosome)}.
+ * </p>
+ */
+public class BranchCoverageBatchEvaluator implements BatchFitnessEvaluator {
+
+    @Override
+    public boolean canEvaluate(TestFitnessFunction goal) {
+        return goal instanceof BranchCoverageTestFitness;
+    }
+
+    @Override
+    public void evaluate(TestChromosome individual, List<TestFitnessFunction> goals,
+                         List<TestFitnessFunction> remaining) {
+        final ExecutionResult result = individual.getLastExecutionResult();
+        if (result.hasTimeout() || result.getTrace() == null) {
+            // the distance calculator has its own rules for timeouts
+            remaining.addAll(goals);
+            return;
+        }
+
+
+        final GoalRegistry registry = GoalRegistry.getInstance();
+        final List<TestFitnessFunction> evaluated = new ArrayList<>(goals.size());
+        final double[] fitnessValues = new double[goals.size()];
+        int numEvaluated = 0;
+
+        for (TestFitnessFunction ff : goals) {
+            final ControlFlowDistance distance = ((BranchCoverageTestFitness) ff).getBranchGoal()
+                    .getReachedDistance(result);
+            if (distance == null) {
+                remaining.add(ff);
+                continue;
+            }
+            final double fitness = distance.getResultingBranchFitness();
+
+            // getFitness(TestChromosome) records the value twice (once in
+            // getFitness(TestChromosome, ExecutionResult)): previous and
+            // current fitness end up equal, and two evaluations are counted
+            final int id = registry.getId(ff);
+            individual.getPreviousFitnessValues().putValue(id, fitness);
+            individual.getFitnessValues().putValue(id, fitness);
+            if (fitness == 0.0) {
+                individual.getTestCase().addCoveredGoal(ff);
+            }
+            evaluated.add(ff);
+            fitnessValues[numEvaluated++] = fitness;
+        }
+        individual.setNumberOfEvaluations(individual.getNumberOfEvaluations() + 2 * numEvaluated);
+
+        if (Properties.TEST_ARCHIVE && ArrayUtil.contains(Properties.CRITERION, Properties.Criterion.BRANCH)) {
+            Archive.getArchiveInstance().updateArchive(evaluated, individual, fitnessValues);
+        }
+    }
+}
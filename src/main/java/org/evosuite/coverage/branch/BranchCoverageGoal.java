@@ -23,6 +23,7 @@ import org.evosuite.TestGenerationContext;
 import org.evosuite.coverage.ControlFlowDistance;
 import org.evosuite.graphs.cfg.BytecodeInstructionPool;
 import org.evosuite.graphs.cfg.ControlDependency;
+import org.evosuite.testcase.execution.BranchDistanceIndex;
 import org.evosuite.testcase.execution.ExecutionResult;
 
 import java.io.IOException;
@@ -229,17 +230,54 @@ public class BranchCoverageGoal implements Serializable, Comparable<BranchCovera
      * <p>
      * getDistance
      * </p>
+     * <p>
+     * If the goal was reached, its distance is read from the {@link BranchDistanceIndex} of the
+     * result (see {@link #getReachedDistance(ExecutionResult)}); only otherwise are the control
+     * dependencies walked.
+     * </p>
      *
      * @param result a {@link ExecutionResult} object.
      * @return a {@link org.evosuite.coverage.ControlFlowDistance} object.
      */
     public ControlFlowDistance getDistance(ExecutionResult result) {
+        if (!result.hasTimeout() && result.getTrace() != null) {
+            ControlFlowDistance reached = getReachedDistance(result);
+            if (reached != null) {
+                return reached;
+            }
+        }
 
         ControlFlowDistance r = ControlFlowDistanceCalculator.getDistance(result, branch, value,
                 className, methodName);
         return r;
     }
 
+    /**
+     * The distance of this goal if it was reached during an execution that did not time out:
+     * a branch that was evaluated has approach level 0 and the minimal distance recorded for it,
+     * and the root branch of a method that was executed is covered. Both are a lookup in the
+     * {@link BranchDistanceIndex} of the result.
+     *
+     * @param result an {@link ExecutionResult} that did not time out
+     * @return the distance, or null if the goal was not reached (or is the root branch of a
+     * method that must not be executed) and its distance depends on the control dependencies
+     */
+    ControlFlowDistance getReachedDistance(ExecutionResult result) {
+        BranchDistanceIndex index = result.getBranchDistanceIndex();
+        int methodId = index.getMethodId(className, methodName);
+        if (methodId < 0) {
+            return null;
+        }
+        if (branch == null) {
+            return value ? new ControlFlowDistance(0, 0.0) : null;
+        }
+        int slot = index.getSlot(methodId, branch.getInstruction().getInstructionId());
+        if (slot < 0) {
+            return null;
+        }
+        return new ControlFlowDistance(0, value ? index.getMinTrueDistance(slot) : index.getMinFalseDistance(slot));
+    }
+
     /**
      * @return
      */
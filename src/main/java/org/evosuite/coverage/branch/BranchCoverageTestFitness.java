@@ -25,7 +25,7 @@ import org.evosuite.testcase.ExecutableChromosome;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.TestFitnessFunction;
 import org.evosuite.testcase.execution.ExecutionResult;
-import org.evosuite.testcase.execution.MethodCall;
+import org.evosuite.testcase.execution.BranchDistanceIndex;
 import org.evosuite.utils.ArrayUtil;
 
 import java.util.Objects;
@@ -118,22 +118,18 @@ public class BranchCoverageTestFitness extends TestFitnessFunction {
     public double getUnfitness(ExecutableChromosome<?> individual, ExecutionResult result) {
 
         double sum = 0.0;
-        boolean methodExecuted = false;
-
-        for (MethodCall call : result.getTrace().getMethodCalls()) {
-            if (call.className.equals(goal.getClassName())
-                    && call.methodName.equals(goal.getMethodName())) {
-                methodExecuted = true;
-                if (goal.getBranch() != null) {
-                    for (int i = 0; i < call.branchTrace.size(); i++) {
-                        if (call.branchTrace.get(i) == goal.getBranch().getInstruction().getInstructionId()) {
-                            if (goal.getValue())
-                                sum += call.falseDistanceTrace.get(i);
-                            else
-                                sum += call.trueDistanceTrace.get(i);
-                        }
-                    }
-                }
+
+        BranchDistanceIndex index = result.getBranchDistanceIndex();
+        int methodId = index.getMethodId(goal.getClassName(), goal.getMethodName());
+        boolean methodExecuted = methodId >= 0;
+
+        if (methodExecuted && goal.getBranch() != null) {
+            int slot = index.getSlot(methodId, goal.getBranch().getInstruction().getInstructionId());
+            if (slot >= 0) {
+                if (goal.getValue())
+                    sum = index.getFalseDistanceSum(slot);
+                else
+                    sum = index.getTrueDistanceSum(slot);
             }
         }
 
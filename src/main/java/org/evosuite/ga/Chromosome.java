@@ -26,7 +26,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -62,17 +61,22 @@ public abstract class Chromosome<T extends Chromosome<T>>
         // empty
     }
 
+    /*
+     * The values per goal are stored in primitive arrays indexed by the id the GoalRegistry
+     * assigned to each goal; the map interface of these fields is just a view.
+     */
+
     /**
      * Last recorded fitness value
      */
     //最后一次记录的适应度函数<染色体> --》适应度值，用map是为了同时使用多个适应度函数
-    private final LinkedHashMap<FitnessFunction<T>, Double> fitnessValues = new LinkedHashMap<>();
+    private final GoalValueMap.OfDouble<T> fitnessValues = new GoalValueMap.OfDouble<>();
 
     /**
      * Previous fitness, to see if there was an improvement
      */
     //上一次的适应度函数<染色体> --》适应度值
-    private final LinkedHashMap<FitnessFunction<T>, Double> previousFitnessValues = new LinkedHashMap<>();
+    private final GoalValueMap.OfDouble<T> previousFitnessValues = new GoalValueMap.OfDouble<>();
 
     /**
      * Has this chromosome changed since its fitness was last evaluated?
@@ -86,19 +90,19 @@ public abstract class Chromosome<T extends Chromosome<T>>
     //染色体上次改变之后是否应用过局部搜索
     private boolean localSearchApplied = false;
     //？染色体&适应度--》覆盖值，可能是覆盖的目标数之类的
-    private final LinkedHashMap<FitnessFunction<T>, Double> coverageValues = new LinkedHashMap<>();
+    private final GoalValueMap.OfDouble<T> coverageValues = new GoalValueMap.OfDouble<>();
 
     /**
      * The number of uncovered goals with regard to the fitness function given as key
      */
     //？？染色体&适应度--》未盖目标数，但是对一个染色体来说，未改目标数有杀意义吗？对于测试套件染色体来说是有意义，不过测试套件染色体仍然待阅读
-    private final LinkedHashMap<FitnessFunction<T>, Integer> numsNotCoveredGoals = new LinkedHashMap<>();
+    private final GoalValueMap.OfInt<T> numsNotCoveredGoals = new GoalValueMap.OfInt<>();
 
     /**
      * The number of covered goals with regard to the fitness function given as key
      */
     //染色体&适应度--》已盖目标数
-    private final LinkedHashMap<FitnessFunction<T>, Integer> numsCoveredGoals = new LinkedHashMap<>();
+    private final GoalValueMap.OfInt<T> numsCoveredGoals = new GoalValueMap.OfInt<>();
 
     // protected double coverage = 0.0;
 
@@ -151,9 +155,7 @@ public abstract class Chromosome<T extends Chromosome<T>>
      */
     //？？适应度值是所有适应度函数下适应度值的加和，这是为什么？
     public double getFitness() {
-        return fitnessValues.values().stream()
-                .mapToDouble(Double::doubleValue)
-                .sum();
+        return fitnessValues.sum();
     }
 
     /**
@@ -164,16 +166,39 @@ public abstract class Chromosome<T extends Chromosome<T>>
      */
     //返回染色体对于给定适应度函数的适应值，从染色体的map中取，没有则向适应度函数传入染色体，计算适应度
     public double getFitness(FitnessFunction<T> ff) {
-        return fitnessValues.containsKey(ff)
-                ? fitnessValues.get(ff)
+        final int id = GoalRegistry.getInstance().lookupId(ff);
+        return fitnessValues.containsId(id)
+                ? fitnessValues.getValue(id)
                 : ff.getFitness(self()); // Calculate new value if non is cached
     }
+
+    /**
+     * Returns the last recorded fitness of this chromosome for the goal with the given id (see
+     * {@link GoalRegistry}), without computing it if there is none.
+     *
+     * @param goalId the id of the goal
+     * @param defaultValue the value to return if no fitness was recorded for the goal
+     * @return the fitness of this chromosome for the goal
+     */
+    public double getFitness(int goalId, double defaultValue) {
+        return fitnessValues.getValue(goalId, defaultValue);
+    }
+
+    /**
+     * Tells whether a fitness value was recorded for the goal with the given id.
+     *
+     * @param goalId the id of the goal
+     * @return
+     */
+    public boolean hasFitness(int goalId) {
+        return fitnessValues.containsId(goalId);
+    }
     //curd
-    public Map<FitnessFunction<T>, Double> getFitnessValues() {
+    public GoalValueMap.OfDouble<T> getFitnessValues() {
         return this.fitnessValues;
     }
     //curd
-    public Map<FitnessFunction<T>, Double> getPreviousFitnessValues() {
+    public GoalValueMap.OfDouble<T> getPreviousFitnessValues() {
         return this.previousFitnessValues;
     }
 
@@ -186,7 +211,7 @@ public abstract class Chromosome<T extends Chromosome<T>>
      */
     //curd
     public boolean hasExecutedFitness(FitnessFunction<T> ff) {
-        return this.previousFitnessValues.containsKey(ff);
+        return this.previousFitnessValues.containsId(GoalRegistry.getInstance().lookupId(ff));
     }
     //curd
     public void setFitnessValues(Map<? extends FitnessFunction<T>, Double> fits) {
@@ -248,11 +273,12 @@ public abstract class Chromosome<T extends Chromosome<T>>
     //增加适应度函数，给定初值，覆盖值，和覆盖目标数
     public void addFitness(FitnessFunction<T> ff, double fitnessValue, double coverage,
                            int numCoveredGoals) {
-        this.fitnessValues.put(ff, fitnessValue);
-        this.previousFitnessValues.put(ff, fitnessValue);
-        this.coverageValues.put(ff, coverage);
-        this.numsCoveredGoals.put(ff, numCoveredGoals);
-        this.numsNotCoveredGoals.put(ff, -1);
+        final int id = GoalRegistry.getInstance().getId(ff);
+        this.fitnessValues.putValue(id, fitnessValue);
+        this.previousFitnessValues.putValue(id, fitnessValue);
+        this.coverageValues.putValue(id, coverage);
+        this.numsCoveredGoals.putValue(id, numCoveredGoals);
+        this.numsNotCoveredGoals.putValue(id, -1);
     }
 
     /**
@@ -268,8 +294,19 @@ public abstract class Chromosome<T extends Chromosome<T>>
                     + ff.getClass().getName());
         }
 
-        previousFitnessValues.put(ff, fitnessValues.getOrDefault(ff, value));
-        fitnessValues.put(ff, value);
+        setFitness(GoalRegistry.getInstance().getId(ff), value);
+    }
+
+    /**
+     * Set new fitness value for the goal with the given id (see {@link GoalRegistry}). The value
+     * is not validated, this is up to the caller.
+     *
+     * @param goalId the id of the goal
+     * @param value  a double.
+     */
+    public void setFitness(int goalId, double value) {
+        previousFitnessValues.putValue(goalId, fitnessValues.getValue(goalId, value));
+        fitnessValues.putValue(goalId, value);
     }
 
     /**
@@ -279,12 +316,14 @@ public abstract class Chromosome<T extends Chromosome<T>>
      * @return
      */
     public boolean hasFitnessChanged() {
-        return fitnessValues.keySet().stream()
-                .anyMatch(ff -> {
-                    final double currentValue = fitnessValues.get(ff);
-                    final double previousValue = previousFitnessValues.get(ff);
-                    return currentValue != previousValue;
-                });
+        for (int i = 0; i < fitnessValues.size(); i++) {
+            final int id = fitnessValues.idAt(i);
+            if (!previousFitnessValues.containsId(id)
+                    || fitnessValues.getValue(id) != previousFitnessValues.getValue(id)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -323,6 +362,16 @@ public abstract class Chromosome<T extends Chromosome<T>>
             return i;
     }
 
+    /**
+     * Returns the key {@link #compareTo(Chromosome)} uses to order chromosomes whose fitness and
+     * secondary objectives are equal, or {@code null} if such chromosomes are not ordered.
+     *
+     * @return the tie-break key, or {@code null}
+     */
+    public String getTieBreakKey() {
+        return null;
+    }
+
     /**
      * Secondary Objectives are specific to chromosome types
      *
@@ -444,9 +493,7 @@ public abstract class Chromosome<T extends Chromosome<T>>
      * @return
      */
     public int getNumOfCoveredGoals() {
-        return numsCoveredGoals.values().stream()
-                .mapToInt(Integer::intValue)
-                .sum();
+        return numsCoveredGoals.sum();
     }
 
     /**
@@ -456,9 +503,7 @@ public abstract class Chromosome<T extends Chromosome<T>>
      * @return
      */
     public int getNumOfNotCoveredGoals() {
-        return numsNotCoveredGoals.values().stream()
-                .mapToInt(Integer::intValue)
-                .sum();
+        return numsNotCoveredGoals.sum();
     }
 
     public void setNumsOfCoveredGoals(Map<FitnessFunction<T>, Integer> fits) {
@@ -475,15 +520,15 @@ public abstract class Chromosome<T extends Chromosome<T>>
         this.numsNotCoveredGoals.put(ff, numCoveredGoals);
     }
 
-    public Map<FitnessFunction<T>, Integer> getNumsOfCoveredGoals() {
+    public GoalValueMap.OfInt<T> getNumsOfCoveredGoals() {
         return this.numsCoveredGoals;
     }
 
-    public LinkedHashMap<FitnessFunction<T>, Integer> getNumsNotCoveredGoals() {
+    public GoalValueMap.OfInt<T> getNumsNotCoveredGoals() {
         return numsNotCoveredGoals;
     }
 
-    public Map<FitnessFunction<T>, Double> getCoverageValues() {
+    public GoalValueMap.OfDouble<T> getCoverageValues() {
         return this.coverageValues;
     }
 
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * Assigns a dense, non-negative integer id to every {@link FitnessFunction}
+ * (i.e., every goal) seen during the search. Fitness functions that are
+ * equal get the same id.
+ * </p>
+ *
+ * <p>
+ * Chromosomes use these ids to store their fitness values in primitive
+ * arrays (see {@link GoalValueMap}), and ranking, crowding distance and the
+ * archive can read fitness values by index instead of hashing goals. Ids are
+ * only valid within the JVM that assigned them.
+ * </p>
+ *
+ * <p>
+ * The registry holds on to every goal it has seen, so it is cleared together
+ * with the archive at the end of a search (see {@link #reset()}).
+ * </p>
+ */
+public final class GoalRegistry {
+
+    private static final GoalRegistry instance = new GoalRegistry();
+
+    private final Map<FitnessFunction<?>, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Goals by id. Ids are published through {@link #ids}, so a thread that
+     * knows an id also sees the goal stored for it.
+     */
+    private volatile FitnessFunction<?>[] goals = new FitnessFunction<?>[256];
+
+    private int size = 0;
+
+    private GoalRegistry() {
+    }
+
+    public static GoalRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the id of the given goal, assigning the next free id if the goal
+     * has not been seen before
+     *
+     * @param goal a {@link FitnessFunction}
+     * @return the id of {@code goal}
+     */
+    public int getId(FitnessFunction<?> goal) {
+        Integer id = ids.get(goal);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(goal);
+            if (id == null) {
+                id = size++;
+                FitnessFunction<?>[] current = goals;
+                if (id == current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                }
+                current[id] = goal;
+                goals = current;
+                ids.put(goal, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the id of the given goal without registering it
+     *
+     * @param goal a {@link FitnessFunction}
+     * @return the id of {@code goal}, or -1 if it has not been registered
+     */
+    public int lookupId(Object goal) {
+        if (!(goal instanceof FitnessFunction)) {
+            return -1;
+        }
+        Integer id = ids.get(goal);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id an id assigned by this registry
+     * @return the goal with the given id
+     */
+    public FitnessFunction<?> getGoal(int id) {
+        return goals[id];
+    }
+
+    /**
+     * Forgets all goals, so that the next search starts again from id 0 and the
+     * goals of the previous one can be collected. Ids assigned before are no
+     * longer valid, hence this must only be called between searches, when the
+     * chromosomes and fitness values of the previous search are not used any
+     * more (see {@link org.evosuite.ga.archive.Archive#reset()}).
+     */
+    public void reset() {
+        synchronized (this) {
+            ids.clear();
+            goals = new FitnessFunction<?>[256];
+            size = 0;
+        }
+    }
+
+    /**
+     * @return the number of goals registered so far, i.e., an upper bound of
+     * all the ids assigned so far
+     */
+    public int size() {
+        synchronized (this) {
+            return size;
+        }
+    }
+}
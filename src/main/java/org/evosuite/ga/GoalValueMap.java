@@ -0,0 +1,491 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * <p>
+ * A map from goals to values that stores the values in a primitive array,
+ * keyed by the id the {@link GoalRegistry} assigned to each goal. The
+ * insertion order of the goals is kept, as in a {@link LinkedHashMap}.
+ * </p>
+ *
+ * <p>
+ * Values are stored densely in insertion order, and a small open-addressing
+ * table maps ids to positions, so the memory of a map grows with the number
+ * of goals it holds, not with the largest id handed out by the registry
+ * (which keeps growing over a search).
+ * </p>
+ *
+ * <p>
+ * The {@link Map} interface is a view on the primitive storage: it boxes
+ * values on the way out and is only meant for code that is not performance
+ * critical. Hot paths should use the id-based accessors of {@link OfDouble}
+ * and {@link OfInt} instead.
+ * </p>
+ *
+ * @param <T> the type of chromosome the goals are defined on
+ * @param <V> the boxed type of the values
+ */
+public abstract class GoalValueMap<T extends Chromosome<T>, V> extends AbstractMap<FitnessFunction<T>, V>
+        implements Serializable {
+
+    private static final long serialVersionUID = 2370245163208738517L;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Ids of the goals in this map, by position (i.e., in insertion order)
+     */
+    private transient int[] order = new int[INITIAL_CAPACITY];
+
+    /**
+     * Open-addressing table from ids to positions: each slot holds a position
+     * plus one, or 0 if it is empty. Kept at most half full.
+     */
+    private transient int[] table = new int[2 * INITIAL_CAPACITY];
+
+    private transient int size = 0;
+
+    /**
+     * Grows the value storage to hold at least {@code capacity} positions
+     */
+    protected abstract void ensureValueCapacity(int capacity);
+
+    /**
+     * Moves the values after {@code position} one position down
+     *
+     * @param position the position of the removed value
+     * @param size     the number of values before the removal
+     */
+    protected abstract void removeValueAt(int position, int size);
+
+    protected abstract V getBoxed(int position);
+
+    protected abstract void setBoxed(int position, V value);
+
+    protected abstract void writeValue(ObjectOutputStream out, int position) throws IOException;
+
+    protected abstract void readValue(ObjectInputStream in, int position) throws IOException;
+
+    /**
+     * @param id a goal id
+     * @return the position of the goal with the given id, or -1 if this map
+     * holds no value for it
+     */
+    public final int positionOf(int id) {
+        if (id < 0) {
+            return -1;
+        }
+        final int mask = table.length - 1;
+        for (int i = hash(id) & mask; ; i = (i + 1) & mask) {
+            final int slot = table[i];
+            if (slot == 0) {
+                return -1;
+            }
+            if (order[slot - 1] == id) {
+                return slot - 1;
+            }
+        }
+    }
+
+    /**
+     * @param id a goal id
+     * @return whether this map holds a value for the goal with the given id
+     */
+    public final boolean containsId(int id) {
+        return positionOf(id) >= 0;
+    }
+
+    /**
+     * @param position a position between 0 and {@link #size()}
+     * @return the id of the goal at the given position, in insertion order
+     */
+    public final int idAt(int position) {
+        return order[position];
+    }
+
+    /**
+     * Adds a goal to this map, if not present yet. The caller is responsible
+     * for storing its value.
+     *
+     * @return the position of the goal
+     */
+    protected final int addId(int id) {
+        final int existing = positionOf(id);
+        if (existing >= 0) {
+            return existing;
+        }
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+            ensureValueCapacity(order.length);
+        }
+        order[size] = id;
+        size++;
+        if (2 * size > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insert(size - 1);
+        }
+        return size - 1;
+    }
+
+    private void removeAt(int position) {
+        System.arraycopy(order, position + 1, order, position, size - position - 1);
+        removeValueAt(position, size);
+        size--;
+        rehash(table.length);
+    }
+
+    private void insert(int position) {
+        final int mask = table.length - 1;
+        int i = hash(order[position]) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = position + 1;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int position = 0; position < size; position++) {
+            insert(position);
+        }
+    }
+
+    private static int hash(int id) {
+        final int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return containsId(GoalRegistry.getInstance().lookupId(key));
+    }
+
+    @Override
+    public V get(Object key) {
+        final int position = positionOf(GoalRegistry.getInstance().lookupId(key));
+        return position >= 0 ? getBoxed(position) : null;
+    }
+
+    @Override
+    public V put(FitnessFunction<T> key, V value) {
+        final int id = GoalRegistry.getInstance().getId(key);
+        final int existing = positionOf(id);
+        final V old = existing >= 0 ? getBoxed(existing) : null;
+        setBoxed(addId(id), value);
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        final int position = positionOf(GoalRegistry.getInstance().lookupId(key));
+        if (position < 0) {
+            return null;
+        }
+        final V old = getBoxed(position);
+        removeAt(position);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        Arrays.fill(table, 0);
+    }
+
+    @Override
+    public Set<Entry<FitnessFunction<T>, V>> entrySet() {
+        return new AbstractSet<Entry<FitnessFunction<T>, V>>() {
+            @Override
+            public Iterator<Entry<FitnessFunction<T>, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Entry<FitnessFunction<T>, V>> {
+
+        private int next = 0;
+
+        private boolean canRemove = false;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<FitnessFunction<T>, V> next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return new GoalEntry(order[next++]);
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            removeAt(--next);
+            canRemove = false;
+        }
+    }
+
+    private class GoalEntry implements Entry<FitnessFunction<T>, V> {
+
+        private final int id;
+
+        private GoalEntry(int id) {
+            this.id = id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public FitnessFunction<T> getKey() {
+            return (FitnessFunction<T>) GoalRegistry.getInstance().getGoal(id);
+        }
+
+        @Override
+        public V getValue() {
+            return getBoxed(positionOf(id));
+        }
+
+        @Override
+        public V setValue(V value) {
+            final int position = positionOf(id);
+            V old = getBoxed(position);
+            setBoxed(position, value);
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+    }
+
+    /**
+     * Goal ids are only valid within one JVM, hence the goals themselves are
+     * serialized and registered again when read back
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeObject(GoalRegistry.getInstance().getGoal(order[i]));
+            writeValue(out, i);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        order = new int[INITIAL_CAPACITY];
+        table = new int[2 * INITIAL_CAPACITY];
+        size = 0;
+        ensureValueCapacity(INITIAL_CAPACITY);
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            int id = GoalRegistry.getInstance().getId((FitnessFunction<?>) in.readObject());
+            readValue(in, addId(id));
+        }
+    }
+
+    /**
+     * Goal values of type {@code double}
+     */
+    public static class OfDouble<T extends Chromosome<T>> extends GoalValueMap<T, Double> {
+
+        private static final long serialVersionUID = -4790376181658925013L;
+
+        private transient double[] values = new double[INITIAL_CAPACITY];
+
+        public double getValue(int id) {
+            return values[positionOf(id)];
+        }
+
+        public double getValue(int id, double defaultValue) {
+            final int position = positionOf(id);
+            return position >= 0 ? values[position] : defaultValue;
+        }
+
+        public void putValue(int id, double value) {
+            values[addId(id)] = value;
+        }
+
+        /**
+         * @return the sum of all values, in insertion order
+         */
+        public double sum() {
+            double sum = 0.0;
+            for (int i = 0; i < size(); i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public void putAll(Map<? extends FitnessFunction<T>, ? extends Double> m) {
+            if (m instanceof OfDouble) {
+                OfDouble<?> other = (OfDouble<?>) m;
+                for (int i = 0; i < other.size(); i++) {
+                    putValue(other.idAt(i), other.values[i]);
+                }
+            } else {
+                super.putAll(m);
+            }
+        }
+
+        @Override
+        protected void ensureValueCapacity(int capacity) {
+            // null while the map is being deserialized
+            values = values == null ? new double[capacity] : Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        protected void removeValueAt(int position, int size) {
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+        }
+
+        @Override
+        protected Double getBoxed(int position) {
+            return values[position];
+        }
+
+        @Override
+        protected void setBoxed(int position, Double value) {
+            values[position] = value;
+        }
+
+        @Override
+        protected void writeValue(ObjectOutputStream out, int position) throws IOException {
+            out.writeDouble(values[position]);
+        }
+
+        @Override
+        protected void readValue(ObjectInputStream in, int position) throws IOException {
+            values[position] = in.readDouble();
+        }
+    }
+
+    /**
+     * Goal values of type {@code int}
+     */
+    public static class OfInt<T extends Chromosome<T>> extends GoalValueMap<T, Integer> {
+
+        private static final long serialVersionUID = 8143320961748020396L;
+
+        private transient int[] values = new int[INITIAL_CAPACITY];
+
+        public int getValue(int id) {
+            return values[positionOf(id)];
+        }
+
+        public int getValue(int id, int defaultValue) {
+            final int position = positionOf(id);
+            return position >= 0 ? values[position] : defaultValue;
+        }
+
+        public void putValue(int id, int value) {
+            values[addId(id)] = value;
+        }
+
+        /**
+         * @return the sum of all values
+         */
+        public int sum() {
+            int sum = 0;
+            for (int i = 0; i < size(); i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public void putAll(Map<? extends FitnessFunction<T>, ? extends Integer> m) {
+            if (m instanceof OfInt) {
+                OfInt<?> other = (OfInt<?>) m;
+                for (int i = 0; i < other.size(); i++) {
+                    putValue(other.idAt(i), other.values[i]);
+                }
+            } else {
+                super.putAll(m);
+            }
+        }
+
+        @Override
+        protected void ensureValueCapacity(int capacity) {
+            // null while the map is being deserialized
+            values = values == null ? new int[capacity] : Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        protected void removeValueAt(int position, int size) {
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+        }
+
+        @Override
+        protected Integer getBoxed(int position) {
+            return values[position];
+        }
+
+        @Override
+        protected void setBoxed(int position, Integer value) {
+            values[position] = value;
+        }
+
+        @Override
+        protected void writeValue(ObjectOutputStream out, int position) throws IOException {
+            out.writeInt(values[position]);
+        }
+
+        @Override
+        protected void readValue(ObjectInputStream in, int position) throws IOException {
+            values[position] = in.readInt();
+        }
+    }
+}
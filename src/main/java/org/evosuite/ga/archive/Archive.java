@@ -21,23 +21,23 @@ package org.evosuite.ga.archive;
 
 import org.evosuite.Properties;
 import org.evosuite.ga.Chromosome;
+import org.evosuite.ga.GoalRegistry;
 import org.evosuite.ga.SecondaryObjective;
 import org.evosuite.runtime.util.AtMostOnceLogger;
 import org.evosuite.setup.TestCluster;
 import org.evosuite.testcase.TestCase;
+import org.evosuite.testcase.TestCaseSummary;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.TestFitnessFunction;
 import org.evosuite.testcase.execution.ExecutionResult;
-import org.evosuite.testcase.statements.FunctionalMockStatement;
-import org.evosuite.testcase.statements.Statement;
-import org.evosuite.testcase.statements.reflection.PrivateFieldStatement;
-import org.evosuite.testcase.statements.reflection.PrivateMethodStatement;
 import org.evosuite.testsuite.TestSuiteChromosome;
 import org.evosuite.utils.generic.*;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.*;
 
@@ -57,7 +57,8 @@ public abstract class Archive implements Serializable {
 
     /**
      * Map used to store all targets (values of the map) of each method (here represented by its name,
-     * keys of the map)
+     * keys of the map). All accesses are synchronized on the map itself, so that the archive can be
+     * updated from several threads and each fully covered method is reported exactly once.
      */
     protected final Map<String, Set<TestFitnessFunction>> nonCoveredTargetsOfEachMethod =
             new LinkedHashMap<>();
@@ -65,7 +66,20 @@ public abstract class Archive implements Serializable {
     /**
      * Has this archive been updated with new candidate solutions?
      */
-    protected boolean hasBeenUpdated = false;
+    protected volatile boolean hasBeenUpdated = false;
+
+    /**
+     * The covered and uncovered targets, as bitsets over the ids of the {@link GoalRegistry}. They
+     * are maintained along with {@link #nonCoveredTargetsOfEachMethod}, under the same lock.
+     */
+    private final GoalSet coveredGoals = new GoalSet();
+
+    private final GoalSet uncoveredGoals = new GoalSet();
+
+    /**
+     * Incremented whenever a target is registered or covered
+     */
+    private volatile long version = 0;
 
     /**
      * Register a target.
@@ -97,10 +111,17 @@ public abstract class Archive implements Serializable {
      */
     protected void registerNonCoveredTargetOfAMethod(TestFitnessFunction target) {
         String targetMethod = this.getMethodFullName(target);
-        if (!this.nonCoveredTargetsOfEachMethod.containsKey(targetMethod)) {
-            this.nonCoveredTargetsOfEachMethod.put(targetMethod, new LinkedHashSet<>());
+        synchronized (this.nonCoveredTargetsOfEachMethod) {
+            if (!this.nonCoveredTargetsOfEachMethod.containsKey(targetMethod)) {
+                this.nonCoveredTargetsOfEachMethod.put(targetMethod, new LinkedHashSet<>());
+            }
+            this.nonCoveredTargetsOfEachMethod.get(targetMethod).add(target);
+
+            int id = GoalRegistry.getInstance().getId(target);
+            if (!this.coveredGoals.get(id) && this.uncoveredGoals.set(id)) {
+                this.version++;
+            }
         }
-        this.nonCoveredTargetsOfEachMethod.get(targetMethod).add(target);
     }
 
     /**
@@ -110,16 +131,25 @@ public abstract class Archive implements Serializable {
      */
     protected void removeNonCoveredTargetOfAMethod(TestFitnessFunction target) {
         String targetMethod = this.getMethodFullName(target);
-        if (this.nonCoveredTargetsOfEachMethod.containsKey(targetMethod)) {
-            // target has been covered, therefore we can remove it from the list of non-covered
-            this.nonCoveredTargetsOfEachMethod.get(targetMethod).remove(target);
+        synchronized (this.nonCoveredTargetsOfEachMethod) {
+            int id = GoalRegistry.getInstance().lookupId(target);
+            if (id >= 0 && this.uncoveredGoals.clear(id)) {
+                this.coveredGoals.set(id);
+                this.version++;
+            }
+
+            if (this.nonCoveredTargetsOfEachMethod.containsKey(targetMethod)) {
+                // target has been covered, therefore we can remove it from the list of non-covered
+                this.nonCoveredTargetsOfEachMethod.get(targetMethod).remove(target);
 
-            if (this.nonCoveredTargetsOfEachMethod.get(targetMethod).isEmpty()) {
-                // method is fully covered, therefore we do not need to keep track of it
-                this.nonCoveredTargetsOfEachMethod.remove(targetMethod);
+                if (this.nonCoveredTargetsOfEachMethod.get(targetMethod).isEmpty()) {
+                    // method is fully covered, therefore we do not need to keep track of it
+                    this.nonCoveredTargetsOfEachMethod.remove(targetMethod);
 
-                // inform TestCluster that method 'targetMethod' is fully covered
-                this.ignoreMethodCall(this.getClassName(target), this.getMethodName(target));
+                    // inform TestCluster that method 'targetMethod' is fully covered; still holding
+                    // the lock, so that concurrent notifications do not interleave
+                    this.ignoreMethodCall(this.getClassName(target), this.getMethodName(target));
+                }
             }
         }
     }
@@ -146,6 +176,23 @@ public abstract class Archive implements Serializable {
         }
     }
 
+    /**
+     * Updates the archive with a solution and the fitness it has for each of the given targets,
+     * e.g., after the targets were evaluated in bulk.
+     *
+     * @param targets       the targets
+     * @param solution      the solution
+     * @param fitnessValues the fitness of {@code solution} for each target, in the same order as
+     *                      {@code targets}
+     */
+    public void updateArchive(List<? extends TestFitnessFunction> targets,
+                              TestChromosome solution,
+                              double[] fitnessValues) {
+        for (int i = 0; i < targets.size(); i++) {
+            this.updateArchive(targets.get(i), solution, fitnessValues[i]);
+        }
+    }
+
     /**
      * Checks whether a candidate solution is better than an existing one.
      *
@@ -172,8 +219,8 @@ public abstract class Archive implements Serializable {
         // Check if solutions are using any functional mock or private access. A solution is considered
         // better than any other solution if does not use functional mock / private access at all, or if
         // it uses less of those functionalities.
-        int penaltyCurrentSolution = this.calculatePenalty(currentSolution.getTestCase());
-        int penaltyCandidateSolution = this.calculatePenalty(candidateSolution.getTestCase());
+        int penaltyCurrentSolution = this.calculatePenalty(currentSolution);
+        int penaltyCandidateSolution = this.calculatePenalty(candidateSolution);
 
         if (penaltyCandidateSolution < penaltyCurrentSolution) {
             return true;
@@ -228,7 +275,9 @@ public abstract class Archive implements Serializable {
     public abstract int getNumberOfCoveredTargets(Class<?> targetClass);
 
     /**
-     * Returns the union of all targets covered by all solutions in the archive.
+     * Returns the union of all targets covered by all solutions in the archive. Implementations
+     * may return a read-only, live view (see {@link #getCoveredTargetsView()}); callers that need a
+     * snapshot, or a set they can modify, must copy it.
      *
      * @return
      */
@@ -251,7 +300,9 @@ public abstract class Archive implements Serializable {
     public abstract int getNumberOfUncoveredTargets(Class<?> targetClass);
 
     /**
-     * Returns a set of all targets that have not been covered by any solution.
+     * Returns a set of all targets that have not been covered by any solution. Implementations
+     * may return a read-only, live view (see {@link #getUncoveredTargetsView()}); callers that
+     * need a snapshot, or a set they can modify, must copy it.
      *
      * @return
      */
@@ -398,52 +449,19 @@ public abstract class Archive implements Serializable {
      * @return number of penalty points
      */
     protected int calculatePenalty(TestCase testCase) {
-        int penalty = 0;
-
-        if (hasFunctionalMocks(testCase)) {
-            penalty++;
-        }
-        if (hasFunctionalMocksForGenerableTypes(testCase)) {
-            penalty++;
-        }
-        if (hasPrivateAccess(testCase)) {
-            penalty++;
-        }
-
-        return penalty;
-    }
-
-    private boolean hasFunctionalMocks(TestCase testCase) {
-        for (Statement statement : testCase) {
-            if (statement instanceof FunctionalMockStatement) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean hasFunctionalMocksForGenerableTypes(TestCase testCase) {
-        for (Statement statement : testCase) {
-            if (statement instanceof FunctionalMockStatement) {
-                FunctionalMockStatement fm = (FunctionalMockStatement) statement;
-                Class<?> target = fm.getTargetClass();
-                GenericClass<?> gc = GenericClassFactory.get(target);
-                if (TestCluster.getInstance().hasGenerator(gc)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return TestCaseSummary.of(testCase).getPenalty();
     }
 
-    private boolean hasPrivateAccess(TestCase testCase) {
-        for (Statement statement : testCase) {
-            if (statement instanceof PrivateFieldStatement
-                    || statement instanceof PrivateMethodStatement) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Calculate the penalty of the test of a {@link TestChromosome}, using the summary the
+     * chromosome caches until its test changes, so that the statements are not scanned again each
+     * time the chromosome is compared to a solution of the archive.
+     *
+     * @param solution a {@link TestChromosome} object.
+     * @return number of penalty points
+     */
+    protected int calculatePenalty(TestChromosome solution) {
+        return solution.getSummary().getPenalty();
     }
 
     /**
@@ -472,10 +490,12 @@ public abstract class Archive implements Serializable {
      * @return true if a method has been fully covered, false otherwise
      */
     protected boolean isMethodFullyCovered(String methodFullName) {
-        if (!this.nonCoveredTargetsOfEachMethod.containsKey(methodFullName)) {
-            return true;
+        synchronized (this.nonCoveredTargetsOfEachMethod) {
+            if (!this.nonCoveredTargetsOfEachMethod.containsKey(methodFullName)) {
+                return true;
+            }
+            return this.nonCoveredTargetsOfEachMethod.get(methodFullName).isEmpty();
         }
-        return this.nonCoveredTargetsOfEachMethod.get(methodFullName).isEmpty();
     }
 
     /**
@@ -485,10 +505,43 @@ public abstract class Archive implements Serializable {
      * @return
      */
     public int getNumOfRemainingTargets(String methodFullName) {
-        if (!this.nonCoveredTargetsOfEachMethod.containsKey(methodFullName)) {
-            return 0;
+        synchronized (this.nonCoveredTargetsOfEachMethod) {
+            if (!this.nonCoveredTargetsOfEachMethod.containsKey(methodFullName)) {
+                return 0;
+            }
+            return this.nonCoveredTargetsOfEachMethod.get(methodFullName).size();
         }
-        return this.nonCoveredTargetsOfEachMethod.get(methodFullName).size();
+    }
+
+    /**
+     * Returns a read-only, live view of the targets covered by the solutions in the archive, in the
+     * order of their {@link GoalRegistry} ids. Its size and membership tests take constant time, and
+     * it is not copied: callers that need a snapshot must copy it themselves.
+     *
+     * @return
+     */
+    public Set<TestFitnessFunction> getCoveredTargetsView() {
+        return this.coveredGoals;
+    }
+
+    /**
+     * Returns a read-only, live view of the targets that have not been covered by any solution, in
+     * the order of their {@link GoalRegistry} ids (see {@link #getCoveredTargetsView()}).
+     *
+     * @return
+     */
+    public Set<TestFitnessFunction> getUncoveredTargetsView() {
+        return this.uncoveredGoals;
+    }
+
+    /**
+     * Returns a number that increases whenever a target is registered or covered, so that callers
+     * can tell cheaply whether the covered and uncovered targets have changed since they last looked.
+     *
+     * @return
+     */
+    public long getVersion() {
+        return this.version;
     }
 
     /**
@@ -497,10 +550,28 @@ public abstract class Archive implements Serializable {
     public abstract String toString();
 
     /**
-     * Reset any field.
+     * Reset any field. The ids of the goals (see {@link GoalRegistry#reset()}) are per-search
+     * state as well, and are dropped together with the targets.
      */
     public void reset() {
-        this.nonCoveredTargetsOfEachMethod.clear();
+        synchronized (this.nonCoveredTargetsOfEachMethod) {
+            this.nonCoveredTargetsOfEachMethod.clear();
+            this.coveredGoals.clearAll();
+            this.uncoveredGoals.clearAll();
+            GoalRegistry.getInstance().reset();
+            this.version++;
+        }
+    }
+
+    /**
+     * Writes the fields of the archive under the lock its targets are updated under, so that the
+     * covered and uncovered targets are consistent with each other and with
+     * {@link #nonCoveredTargetsOfEachMethod}
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        synchronized (this.nonCoveredTargetsOfEachMethod) {
+            out.defaultWriteObject();
+        }
     }
 
     /**
@@ -531,6 +602,8 @@ public abstract class Archive implements Serializable {
                 return CoverageArchive.instance;
             case MIO:
                 return MIOArchive.instance;
+            case CONCURRENT_COVERAGE:
+                return ConcurrentCoverageArchive.instance;
         }
     }
 }
@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.archive;
+
+import org.evosuite.ga.FitnessFunction;
+import org.evosuite.testcase.TestChromosome;
+import org.evosuite.testcase.TestFitnessFunction;
+import org.evosuite.testsuite.TestSuiteChromosome;
+import org.evosuite.utils.Randomness;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * A coverage archive that can be updated from several threads at once, e.g., while the
+ * offspring of a generation are evaluated in parallel.
+ * </p>
+ *
+ * <p>
+ * Each target has its own slot holding the best solution covering it, so that updates of
+ * different targets never contend with each other. A slot is updated with a compare-and-set loop:
+ * a candidate replaces the current solution only if it is better (see
+ * {@link #isBetterThanCurrent(TestChromosome, TestChromosome)}) and the current solution has not
+ * been replaced in the meantime; otherwise the comparison is repeated against the new one. Since
+ * only one thread can fill an empty slot, each target is counted and reported as covered exactly
+ * once, and so is each fully covered method (see {@link #ignoreMethodCall(String, String)}).
+ * </p>
+ *
+ * <p>
+ * The covered and uncovered targets are returned as read-only, live views (see
+ * {@link #getCoveredTargetsView()}); the solutions are returned as snapshots, listed in the order
+ * their targets were added.
+ * </p>
+ */
+public class ConcurrentCoverageArchive extends Archive {
+
+    private static final long serialVersionUID = -7311420427815387322L;
+
+    public static final ConcurrentCoverageArchive instance = new ConcurrentCoverageArchive();
+
+    /**
+     * The best solution covering each target, or {@code null} while the target is not covered
+     */
+    private final Map<TestFitnessFunction, AtomicReference<TestChromosome>> solutions =
+            new ConcurrentHashMap<>();
+
+    /**
+     * All targets, in the order they were added
+     */
+    private final List<TestFitnessFunction> targets = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger numberOfCoveredTargets = new AtomicInteger(0);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addTarget(TestFitnessFunction target) {
+        super.addTarget(target);
+
+        if (this.solutions.putIfAbsent(target, new AtomicReference<>()) == null) {
+            this.targets.add(target);
+            this.registerNonCoveredTargetOfAMethod(target);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateArchive(TestFitnessFunction target, TestChromosome solution,
+                              double fitnessValue) {
+        super.updateArchive(target, solution, fitnessValue);
+
+        AtomicReference<TestChromosome> best = this.solutions.get(target);
+        assert best != null : "Unknown goal: " + target;
+
+        if (fitnessValue > 0.0) {
+            // as the target is not covered, it cannot be considered in the archive
+            return;
+        }
+
+        while (true) {
+            TestChromosome currentSolution = best.get();
+            if (currentSolution == null) {
+                if (best.compareAndSet(null, solution)) {
+                    this.numberOfCoveredTargets.incrementAndGet();
+                    this.removeNonCoveredTargetOfAMethod(target);
+                    break;
+                }
+            } else {
+                if (currentSolution == solution || !this.isBetterThanCurrent(currentSolution, solution)) {
+                    return;
+                }
+                if (best.compareAndSet(currentSolution, solution)) {
+                    break;
+                }
+            }
+            // another thread has updated the target in the meantime, compare with its solution
+        }
+
+        this.hasBeenUpdated = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isArchiveEmpty() {
+        return this.numberOfCoveredTargets.get() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfTargets() {
+        return this.targets.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfCoveredTargets() {
+        return this.numberOfCoveredTargets.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfCoveredTargets(Class<?> targetClass) {
+        int count = 0;
+        for (TestFitnessFunction target : this.targets) {
+            if (targetClass.isInstance(target) && this.hasSolution(target)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<TestFitnessFunction> getCoveredTargets() {
+        return this.getCoveredTargetsView();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfUncoveredTargets() {
+        return this.targets.size() - this.numberOfCoveredTargets.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfUncoveredTargets(Class<?> targetClass) {
+        int count = 0;
+        for (TestFitnessFunction target : this.targets) {
+            if (targetClass.isInstance(target) && !this.hasSolution(target)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<TestFitnessFunction> getUncoveredTargets() {
+        return this.getUncoveredTargetsView();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasTarget(TestFitnessFunction target) {
+        assert target != null;
+        return this.solutions.containsKey(target);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfSolutions() {
+        return this.getSolutions().size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<TestChromosome> getSolutions() {
+        Set<TestChromosome> uniqueSolutions = new LinkedHashSet<>();
+        for (TestFitnessFunction target : this.targets) {
+            TestChromosome solution = this.getSolution(target);
+            if (solution != null) {
+                uniqueSolutions.add(solution);
+            }
+        }
+        return uniqueSolutions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TestChromosome getSolution() {
+        throw new UnsupportedOperationException("A coverage archive has no preferred solution");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TestChromosome getSolution(TestFitnessFunction target) {
+        assert target != null;
+        AtomicReference<TestChromosome> best = this.solutions.get(target);
+        return best == null ? null : best.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasSolution(TestFitnessFunction target) {
+        return this.getSolution(target) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TestChromosome getRandomSolution() {
+        Set<TestChromosome> uniqueSolutions = this.getSolutions();
+        if (uniqueSolutions.isEmpty()) {
+            return null;
+        }
+        return Randomness.choice(uniqueSolutions).clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected TestSuiteChromosome createMergedSolution(TestSuiteChromosome solution) {
+        TestSuiteChromosome mergedSolution = solution.clone();
+
+        // to avoid adding the same solution to 'mergedSolution' suite
+        Set<TestChromosome> solutionsSampledFromArchive = new LinkedHashSet<>();
+
+        for (TestFitnessFunction target : this.targets) {
+            TestChromosome chromosome = this.getSolution(target);
+            if (chromosome == null || target.isCoveredBy(mergedSolution)) {
+                continue;
+            }
+            if (solutionsSampledFromArchive.add(chromosome)) {
+                mergedSolution.addTest(chromosome.clone());
+            }
+        }
+
+        // re-evaluate merged solution
+        for (FitnessFunction<TestSuiteChromosome> ff : solution.getFitnessValues().keySet()) {
+            ff.getFitness(mergedSolution);
+        }
+
+        return mergedSolution;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shrinkSolutions(int size) {
+        throw new UnsupportedOperationException("A coverage archive keeps one solution per target");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Goals covered: " + this.getNumberOfCoveredTargets() + "/" + this.getNumberOfTargets();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        this.solutions.clear();
+        this.targets.clear();
+        this.numberOfCoveredTargets.set(0);
+    }
+}
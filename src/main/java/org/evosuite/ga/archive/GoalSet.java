@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.archive;
+
+import org.evosuite.ga.GoalRegistry;
+import org.evosuite.testcase.TestFitnessFunction;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * A read-only set of targets, stored as a bitset over the ids the {@link GoalRegistry} assigned to
+ * them. The archive flips the bits as targets are added and covered, and hands the set out as a
+ * live view: {@link #size()} and {@link #contains(Object)} take constant time, and iterating visits
+ * the targets in the order of their ids (i.e., the order in which the search first saw them),
+ * without copying them.
+ * </p>
+ *
+ * <p>
+ * Bits are only flipped while the archive holds its lock. A thread iterating the set while the
+ * archive is updated may or may not see the latest changes, but never fails.
+ * </p>
+ */
+final class GoalSet extends AbstractSet<TestFitnessFunction> implements Serializable {
+
+    private static final long serialVersionUID = -2926184593094719738L;
+
+    /**
+     * Bit (id % 64) of words[id / 64] is set iff the target with the given id is in the set;
+     * replaced by a larger copy when the ids outgrow it
+     */
+    private transient volatile long[] words = new long[1];
+
+    private transient volatile int size = 0;
+
+    /**
+     * Adds the target with the given id.
+     *
+     * @return true if the target was not in the set yet
+     */
+    boolean set(int id) {
+        long[] array = this.words;
+        final int word = id >>> 6;
+        if (word >= array.length) {
+            array = Arrays.copyOf(array, Math.max(word + 1, array.length * 2));
+            this.words = array;
+        }
+        final long mask = 1L << id;
+        if ((array[word] & mask) != 0) {
+            return false;
+        }
+        array[word] |= mask;
+        this.size++;
+        return true;
+    }
+
+    /**
+     * Removes the target with the given id.
+     *
+     * @return true if the target was in the set
+     */
+    boolean clear(int id) {
+        final long[] array = this.words;
+        final int word = id >>> 6;
+        final long mask = 1L << id;
+        if (word >= array.length || (array[word] & mask) == 0) {
+            return false;
+        }
+        array[word] &= ~mask;
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Removes all targets.
+     */
+    void clearAll() {
+        this.words = new long[1];
+        this.size = 0;
+    }
+
+    /**
+     * @return whether the target with the given id is in the set
+     */
+    boolean get(int id) {
+        final long[] array = this.words;
+        final int word = id >>> 6;
+        return word < array.length && (array[word] & (1L << id)) != 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        final int id = GoalRegistry.getInstance().lookupId(o);
+        return id >= 0 && this.get(id);
+    }
+
+    @Override
+    public Iterator<TestFitnessFunction> iterator() {
+        final long[] array = this.words;
+        return new Iterator<TestFitnessFunction>() {
+
+            private int next = nextSetBit(array, 0);
+
+            @Override
+            public boolean hasNext() {
+                return this.next >= 0;
+            }
+
+            @Override
+            public TestFitnessFunction next() {
+                if (this.next < 0) {
+                    throw new NoSuchElementException();
+                }
+                final TestFitnessFunction goal = (TestFitnessFunction) GoalRegistry.getInstance().getGoal(this.next);
+                this.next = nextSetBit(array, this.next + 1);
+                return goal;
+            }
+        };
+    }
+
+    /**
+     * Goal ids are only valid within one JVM, hence the targets themselves are serialized and
+     * registered again when read back. They are written from a snapshot of the bits, so that the
+     * number of targets written matches the targets that follow it (the archive also serializes
+     * its sets under its lock, see {@link Archive}).
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        final long[] snapshot = this.words.clone();
+        int n = 0;
+        for (long word : snapshot) {
+            n += Long.bitCount(word);
+        }
+        out.writeInt(n);
+        for (int id = nextSetBit(snapshot, 0); id >= 0; id = nextSetBit(snapshot, id + 1)) {
+            out.writeObject(GoalRegistry.getInstance().getGoal(id));
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.words = new long[1];
+        this.size = 0;
+        final int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            this.set(GoalRegistry.getInstance().getId((TestFitnessFunction) in.readObject()));
+        }
+    }
+
+    /**
+     * @return the smallest id at least {@code from} whose bit is set, or -1
+     */
+    private static int nextSetBit(long[] array, int from) {
+        int word = from >>> 6;
+        if (word >= array.length) {
+            return -1;
+        }
+        long bits = array[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == array.length) {
+                return -1;
+            }
+            bits = array[word];
+        }
+    }
+}
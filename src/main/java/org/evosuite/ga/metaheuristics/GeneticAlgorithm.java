@@ -19,6 +19,7 @@
  */
 package org.evosuite.ga.metaheuristics;
 
+import org.evosuite.Properties;
 import org.evosuite.Properties.Algorithm;
 import org.evosuite.ga.Chromosome;
 import org.evosuite.ga.ChromosomeFactory;
@@ -29,6 +30,10 @@ import org.evosuite.ga.metaheuristics.localsearch.LocalSearchBudget;
 import org.evosuite.ga.metaheuristics.localsearch.LocalSearchObjective;
 import org.evosuite.ga.operators.crossover.CrossOverFunction;
 import org.evosuite.ga.operators.crossover.SinglePointCrossOver;
+import org.evosuite.ga.operators.ranking.EfficientNonDominatedSorting;
+import org.evosuite.ga.operators.ranking.FastNonDominatedSorting;
+import org.evosuite.ga.operators.ranking.IncrementalNonDominatedSorting;
+import org.evosuite.ga.operators.ranking.ParallelNonDominatedSorting;
 import org.evosuite.ga.operators.ranking.RankBasedPreferenceSorting;
 import org.evosuite.ga.operators.ranking.RankingFunction;
 import org.evosuite.ga.operators.selection.RankSelection;
@@ -126,7 +131,7 @@ public abstract class GeneticAlgorithm<T extends Chromosome<T>> implements Searc
     /**
      * Selected ranking strategy
      **/
-    protected RankingFunction<T> rankingFunction = new RankBasedPreferenceSorting<>();
+    protected RankingFunction<T> rankingFunction = createRankingFunction(Properties.RANKING_TYPE);
 
     /**
      * Constructor
@@ -509,6 +514,28 @@ public abstract class GeneticAlgorithm<T extends Chromosome<T>> implements Searc
         this.rankingFunction = function;
     }
 
+    /**
+     * Creates the ranking function selected by {@link Properties#RANKING_TYPE}
+     *
+     * @param type the ranking strategy
+     * @return a {@link org.evosuite.ga.operators.ranking.RankingFunction} object
+     */
+    private static <T extends Chromosome<T>> RankingFunction<T> createRankingFunction(Properties.RankingType type) {
+        switch (type) {
+            case FAST_NON_DOMINATED_SORTING:
+                return new FastNonDominatedSorting<>();
+            case EFFICIENT_NON_DOMINATED_SORTING:
+                return new EfficientNonDominatedSorting<>();
+            case PARALLEL_NON_DOMINATED_SORTING:
+                return new ParallelNonDominatedSorting<>();
+            case INCREMENTAL_NON_DOMINATED_SORTING:
+                return new IncrementalNonDominatedSorting<>();
+            case PREFERENCE_SORTING:
+            default:
+                return new RankBasedPreferenceSorting<>();
+        }
+    }
+
     /**
      * Get currently used ranking function (only used by MOO algorithms)
      *
@@ -840,11 +867,93 @@ public abstract class GeneticAlgorithm<T extends Chromosome<T>> implements Searc
         if (Properties.SHUFFLE_GOALS)
             Randomness.shuffle(population);
 
-        if (isMaximizationFunction()) {
-            population.sort(Collections.reverseOrder());
-        } else {
-            Collections.sort(population);
+        sortByFitness(population, isMaximizationFunction());
+    }
+
+    /**
+     * Stable sort of the given chromosomes in the order of {@link Chromosome#compareTo(Chromosome)}
+     * (reversed when maximizing), as {@code Collections.sort} would do. The fitness of every
+     * chromosome is computed once; secondary objectives are only compared between chromosomes of
+     * equal fitness, and tie-break keys (such as the code of tests) are only computed for
+     * chromosomes that are still equal after that, at most once each.
+     *
+     * @param chromosomes the chromosomes to sort
+     * @param descending  whether to sort in descending order
+     */
+    protected static <T extends Chromosome<T>> void sortByFitness(List<T> chromosomes, boolean descending) {
+        final int n = chromosomes.size();
+        final double[] fitness = new double[n];
+        int[] from = new int[n];
+        for (int i = 0; i < n; i++) {
+            fitness[i] = chromosomes.get(i).getFitness();
+            from[i] = i;
+        }
+        final String[] keys = new String[n];
+        final boolean[] hasKey = new boolean[n];
+        final int sign = descending ? -1 : 1;
+
+        int[] to = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int start = 0; start < n; start += 2 * width) {
+                final int mid = Math.min(start + width, n);
+                final int end = Math.min(start + 2 * width, n);
+                int i = start;
+                int j = mid;
+                int k = start;
+                while (i < mid && j < end) {
+                    final int c = sign * compare(chromosomes, fitness, keys, hasKey, from[j], from[i]);
+                    to[k++] = c < 0 ? from[j++] : from[i++];
+                }
+                while (i < mid) {
+                    to[k++] = from[i++];
+                }
+                while (j < end) {
+                    to[k++] = from[j++];
+                }
+            }
+            int[] tmp = from;
+            from = to;
+            to = tmp;
+        }
+
+        final List<T> sorted = new ArrayList<>(n);
+        for (int index : from) {
+            sorted.add(chromosomes.get(index));
+        }
+        for (int i = 0; i < n; i++) {
+            chromosomes.set(i, sorted.get(i));
+        }
+    }
+
+    /**
+     * Compares chromosomes {@code a} and {@code b} as {@link Chromosome#compareTo(Chromosome)}
+     * does, with precomputed fitness values and lazily computed tie-break keys.
+     */
+    private static <T extends Chromosome<T>> int compare(List<T> chromosomes, double[] fitness, String[] keys,
+                                                         boolean[] hasKey, int a, int b) {
+        final int c = (int) Math.signum(fitness[a] - fitness[b]);
+        if (c != 0) {
+            return c;
+        }
+        final int secondary = chromosomes.get(a).compareSecondaryObjective(chromosomes.get(b));
+        if (secondary != 0) {
+            return secondary;
+        }
+        final String keyA = getTieBreakKey(chromosomes, keys, hasKey, a);
+        final String keyB = getTieBreakKey(chromosomes, keys, hasKey, b);
+        if (keyA == null || keyB == null) {
+            return 0;
+        }
+        return keyA.compareTo(keyB);
+    }
+
+    private static <T extends Chromosome<T>> String getTieBreakKey(List<T> chromosomes, String[] keys,
+                                                                   boolean[] hasKey, int index) {
+        if (!hasKey[index]) {
+            keys[index] = chromosomes.get(index).getTieBreakKey();
+            hasKey[index] = true;
         }
+        return keys[index];
     }
 
     /**
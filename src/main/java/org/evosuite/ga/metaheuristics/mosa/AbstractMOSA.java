@@ -21,15 +21,19 @@ package org.evosuite.ga.metaheuristics.mosa;
 
 import org.evosuite.Properties.SelectionFunction;
 import org.evosuite.coverage.FitnessFunctions;
+import org.evosuite.coverage.branch.BranchCoverageBatchEvaluator;
 import org.evosuite.coverage.exception.ExceptionCoverageSuiteFitness;
 import org.evosuite.ga.ChromosomeFactory;
 import org.evosuite.ga.ConstructionFailedException;
 import org.evosuite.ga.FitnessFunction;
-import org.evosuite.ga.comparators.DominanceComparator;
 import org.evosuite.ga.metaheuristics.GeneticAlgorithm;
+import org.evosuite.ga.operators.ranking.FitnessMatrix;
+import org.evosuite.testcase.BatchFitnessEvaluator;
 import org.evosuite.testcase.TestCase;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.TestFitnessFunction;
+import org.evosuite.testcase.execution.ExecutionResult;
+import org.evosuite.testcase.execution.TestCaseExecutor;
 import org.evosuite.testcase.secondaryobjectives.TestCaseSecondaryObjective;
 import org.evosuite.testcase.statements.*;
 import org.evosuite.testcase.variable.VariableReference;
@@ -43,6 +47,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Abstract class for MOSA or variants of MOSA.
@@ -62,6 +67,27 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
 
     private MOSATestSuiteAdapter adapter = null;
 
+    /**
+     * Evaluators used to compute the fitness of many goals in one pass over an execution
+     */
+    private static final BatchFitnessEvaluator[] BATCH_EVALUATORS = {new BranchCoverageBatchEvaluator()};
+
+    /**
+     * The goals each of the {@link #BATCH_EVALUATORS} evaluates, split once per change of the
+     * goals (see {@link #splitGoals()})
+     */
+    private List<List<TestFitnessFunction>> batchGoals = null;
+
+    /**
+     * The goals none of the {@link #BATCH_EVALUATORS} evaluates
+     */
+    private List<TestFitnessFunction> otherGoals = null;
+
+    /**
+     * The number of goals when they were last split
+     */
+    private int numSplitGoals = -1;
+
     /**
      * Keep track of overall suite fitness functions and correspondent test fitness functions
      */
@@ -114,6 +140,7 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
     public void addFitnessFunction(final FitnessFunction<TestChromosome> function) {
         if (function instanceof TestFitnessFunction) {
             fitnessFunctions.add((TestFitnessFunction) function);
+            batchGoals = null;
         } else {
             throw new IllegalArgumentException("Only TestFitnessFunctions are supported");
         }
@@ -137,6 +164,12 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
      */
     protected List<TestChromosome> breedNextGeneration() {
         List<TestChromosome> offspringPopulation = new ArrayList<>(Properties.POPULATION);
+        // with pipelined breeding, each offspring is executed while the next ones are bred
+        final BreedingPipeline pipeline = Properties.PIPELINED_BREEDING && this.executesTestsByDefault()
+                ? new BreedingPipeline() : null;
+        // select the parents of the whole generation at once
+        final int[] parents = new int[2 * (Properties.POPULATION / 2)];
+        this.selectionFunction.selectIndices(this.population, parents);
         // we apply only Properties.POPULATION/2 iterations since in each generation
         // we generate two offsprings
         for (int i = 0; i < Properties.POPULATION / 2 && !this.isFinished(); i++) {
@@ -148,8 +181,8 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
              * same individual again...
              */
 
-            TestChromosome parent1 = this.selectionFunction.select(this.population);
-            TestChromosome parent2 = this.selectionFunction.select(this.population);
+            TestChromosome parent1 = this.population.get(parents[2 * i]);
+            TestChromosome parent2 = this.population.get(parents[2 * i + 1]);
             TestChromosome offspring1 = parent1.clone();
             TestChromosome offspring2 = parent2.clone();
             // apply crossover
@@ -170,7 +203,12 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
             if (offspring1.isChanged()) {
                 this.clearCachedResults(offspring1);
                 offspring1.updateAge(this.currentIteration);
-                this.calculateFitness(offspring1);
+                offspring1.reuseExecutionOf(parent1);
+                if (pipeline != null) {
+                    pipeline.submit(offspring1);
+                } else {
+                    this.calculateFitness(offspring1);
+                }
                 offspringPopulation.add(offspring1);
             }
 
@@ -179,31 +217,218 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
             if (offspring2.isChanged()) {
                 this.clearCachedResults(offspring2);
                 offspring2.updateAge(this.currentIteration);
-                this.calculateFitness(offspring2);
+                offspring2.reuseExecutionOf(parent2);
+                if (pipeline != null) {
+                    pipeline.submit(offspring2);
+                } else {
+                    this.calculateFitness(offspring2);
+                }
                 offspringPopulation.add(offspring2);
             }
         }
-        // Add new randomly generate tests
+        if (pipeline != null) {
+            pipeline.finish();
+        }
+
+        // Add new randomly generate tests. They are all generated before any of them is executed, so
+        // the archive does not change while they are generated
+        List<TestChromosome> randomTests = new ArrayList<>();
+        List<TestChromosome> solutions = null;
         for (int i = 0; i < Properties.POPULATION * Properties.P_TEST_INSERTION; i++) {
             final TestChromosome tch;
+            TestChromosome solution = null;
             if (this.getCoveredGoals().size() == 0 || Randomness.nextBoolean()) {
                 tch = this.chromosomeFactory.getChromosome();
                 tch.setChanged(true);
             } else {
-                tch = Randomness.choice(this.getSolutions()).clone();
+                if (solutions == null) {
+                    solutions = this.getSolutions();
+                }
+                solution = Randomness.choice(solutions);
+                tch = solution.clone();
                 tch.mutate();
 //				tch.mutate(); // TODO why is it mutated twice?
             }
             if (tch.isChanged()) {
                 tch.updateAge(this.currentIteration);
-                this.calculateFitness(tch);
-                offspringPopulation.add(tch);
+                if (solution != null) {
+                    tch.reuseExecutionOf(solution);
+                }
+                randomTests.add(tch);
             }
         }
+        this.execute(randomTests);
+        for (TestChromosome tch : randomTests) {
+            this.calculateFitness(tch);
+            offspringPopulation.add(tch);
+        }
         logger.info("Number of offsprings = {}", offspringPopulation.size());
         return offspringPopulation;
     }
 
+    /**
+     * Overlaps the breeding of offspring with their execution: every offspring is submitted to
+     * the execution workers (see {@link TestCaseExecutor#submit(TestCase)}) as soon as it is
+     * bred, and the search thread only waits for an execution when
+     * {@link Properties#BREEDING_PIPELINE_DEPTH} offspring are already in flight. Fitness values
+     * and the archive are still computed and updated on the search thread, one offspring at a
+     * time and in breeding order.
+     * <p>
+     * The search is not the same as without the pipeline, though: everything that is updated
+     * when an offspring is evaluated lags up to {@code depth} offspring behind breeding. The
+     * archive and the methods the test cluster stops calling (see
+     * {@code TestCluster#handleRuntimeAccesses}) only reflect the offspring evaluated so far when
+     * the next ones are bred. And as the offspring still in flight when {@link #isFinished()}
+     * turns true are executed and evaluated all the same, the search budget can be exceeded by
+     * up to {@code depth} executions.
+     */
+    private final class BreedingPipeline {
+
+        private final int depth = Properties.BREEDING_PIPELINE_DEPTH > 0
+                ? Properties.BREEDING_PIPELINE_DEPTH
+                : 2 * Math.max(1, Properties.FORKED_EXECUTION_WORKERS);
+
+        private final Deque<TestChromosome> offspring = new ArrayDeque<>(depth);
+
+        /**
+         * The execution of each offspring in flight, or null for an offspring that is not executed
+         */
+        private final Deque<TestCaseExecutor.Submission> executions = new LinkedList<>();
+
+        /**
+         * Starts the execution of a bred offspring, after waiting for the oldest one if the
+         * pipeline is full. An offspring that already carries the execution of its parent (see
+         * {@link TestChromosome#reuseExecutionOf(TestChromosome)}) is not executed again, but
+         * still evaluated in breeding order. Only the execution runs on a dispatcher thread; its
+         * bookkeeping (search budget, test cluster, result cache) is done on the search thread
+         * when the result is consumed (see {@link TestCaseExecutor#submit(TestCase)}).
+         */
+        void submit(TestChromosome c) {
+            if (offspring.size() >= depth) {
+                evaluateOldest();
+            }
+            offspring.addLast(c);
+            if (c.isChanged() || c.getLastExecutionResult() == null) {
+                executions.addLast(TestCaseExecutor.getInstance().submit(c.getTestCase()));
+            } else {
+                executions.addLast(null);
+            }
+        }
+
+        /**
+         * Waits for all the offspring still in flight and evaluates them
+         */
+        void finish() {
+            while (!offspring.isEmpty()) {
+                evaluateOldest();
+            }
+        }
+
+        private void evaluateOldest() {
+            final TestChromosome c = offspring.removeFirst();
+            final TestCaseExecutor.Submission execution = executions.removeFirst();
+            if (execution == null) {
+                AbstractMOSA.this.calculateFitness(c);
+                return;
+            }
+            try {
+                c.setLastExecutionResult(execution.get());
+                c.setChanged(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the execution of an offspring", e);
+            } catch (ExecutionException e) {
+                logger.error("TG: Exception caught: ", e.getCause());
+                throw new Error(e.getCause());
+            }
+            AbstractMOSA.this.calculateFitness(c);
+        }
+    }
+
+    /**
+     * Executes those of the given tests that changed since their last execution, in one batch
+     * (see {@link TestCaseExecutor#runTests(List)}). Tests are left to be executed one by one when
+     * their fitness is calculated if the goals customize how a test is executed by overriding
+     * {@link TestFitnessFunction#runTest(TestCase)}.
+     *
+     * @param tests the tests to execute
+     */
+    private void execute(List<TestChromosome> tests) {
+        if (!this.executesTestsByDefault()) {
+            return;
+        }
+
+        final List<TestChromosome> changed = new ArrayList<>(tests.size());
+        final List<TestCase> testCases = new ArrayList<>(tests.size());
+        for (TestChromosome test : tests) {
+            if (test.isChanged() || test.getLastExecutionResult() == null) {
+                changed.add(test);
+                testCases.add(test.getTestCase());
+            }
+        }
+        final List<ExecutionResult> results = TestCaseExecutor.runTests(testCases);
+        for (int i = 0; i < changed.size(); i++) {
+            changed.get(i).setLastExecutionResult(results.get(i));
+            changed.get(i).setChanged(false);
+        }
+    }
+
+    /**
+     * Executes the given test if it changed since its last execution, through the
+     * {@link TestFitnessFunction#runTest(TestCase)} of the first goal, as the evaluation of that
+     * goal would.
+     *
+     * @param c the test to execute
+     */
+    private void execute(TestChromosome c) {
+        if ((c.isChanged() || c.getLastExecutionResult() == null) && !this.fitnessFunctions.isEmpty()) {
+            c.setLastExecutionResult(this.fitnessFunctions.get(0).runTest(c.getTestCase()));
+            c.setChanged(false);
+        }
+    }
+
+    /**
+     * @return whether the goals execute tests through {@link TestCaseExecutor#runTest(TestCase)},
+     * i.e., do not override {@link TestFitnessFunction#runTest(TestCase)}, so that tests can be
+     * executed by the {@link TestCaseExecutor} directly
+     */
+    private boolean executesTestsByDefault() {
+        if (this.fitnessFunctions.isEmpty()) {
+            return false;
+        }
+        try {
+            return this.fitnessFunctions.get(0).getClass().getMethod("runTest", TestCase.class)
+                    .getDeclaringClass() == TestFitnessFunction.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Splits the goals into those evaluated by each of the {@link #BATCH_EVALUATORS} and the
+     * others, unless the goals did not change since they were last split. Goals are only ever
+     * added, so a change shows in their number.
+     */
+    private void splitGoals() {
+        if (this.batchGoals != null && this.numSplitGoals == this.fitnessFunctions.size()) {
+            return;
+        }
+        final List<List<TestFitnessFunction>> batches = new ArrayList<>(BATCH_EVALUATORS.length);
+        List<TestFitnessFunction> pending = this.fitnessFunctions;
+        for (BatchFitnessEvaluator evaluator : BATCH_EVALUATORS) {
+            final List<TestFitnessFunction> batch = new ArrayList<>();
+            final List<TestFitnessFunction> rest = new ArrayList<>();
+            for (TestFitnessFunction fitnessFunction : pending) {
+                (evaluator.canEvaluate(fitnessFunction) ? batch : rest).add(fitnessFunction);
+            }
+            batches.add(batch);
+            pending = rest;
+        }
+        this.batchGoals = batches;
+        this.otherGoals = new ArrayList<>(pending);
+        this.numSplitGoals = this.fitnessFunctions.size();
+    }
+
     /**
      * Method used to mutate an offspring.
      *
@@ -309,34 +534,18 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
 
     /**
      * This method extracts non-dominated solutions (tests) according to all covered goal
-     * (e.g., branches).
+     * (e.g., branches), as the skyline of their fitness matrix (see
+     * {@link FitnessMatrix#getNonDominated()}). The solutions are returned in their original order.
      *
      * @param solutions list of test cases to analyze with the "dominance" relationship
      * @return the non-dominated set of test cases
      */
     public List<TestChromosome> getNonDominatedSolutions(List<TestChromosome> solutions) {
-        final DominanceComparator<TestChromosome> comparator =
-                new DominanceComparator<>(this.getCoveredGoals());
-        final List<TestChromosome> nextFront = new ArrayList<>(solutions.size());
-        boolean isDominated;
-        for (TestChromosome p : solutions) {
-            isDominated = false;
-            List<TestChromosome> dominatedSolutions = new ArrayList<>(solutions.size());
-            for (TestChromosome best : nextFront) {
-                final int flag = comparator.compare(p, best);
-                if (flag < 0) {
-                    dominatedSolutions.add(best);
-                }
-                if (flag > 0) {
-                    isDominated = true;
-                }
-            }
-            if (isDominated) {
-                continue;
-            }
-
-            nextFront.add(p);
-            nextFront.removeAll(dominatedSolutions);
+        final FitnessMatrix<TestChromosome> matrix = FitnessMatrix.of(solutions, this.getCoveredGoals());
+        final int[] nonDominated = matrix.getNonDominated();
+        final List<TestChromosome> nextFront = new ArrayList<>(nonDominated.length);
+        for (int index : nonDominated) {
+            nextFront.add(solutions.get(index));
         }
         return nextFront;
     }
@@ -360,12 +569,17 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
     }
 
     /**
-     * Returns the goals that have been covered by the test cases stored in the archive.
+     * Returns the goals that have been covered by the test cases stored in the archive, as a
+     * read-only live view (see {@link Archive#getCoveredTargetsView()}).
+     * <p>
+     * The set is not a copy: it reflects later updates of the archive and must not be modified.
+     * Callers that keep or modify the goals must copy them, and overriding methods may return
+     * either such a view or a copy.
      *
      * @return
      */
     protected Set<TestFitnessFunction> getCoveredGoals() {
-        return new LinkedHashSet<>(Archive.getArchiveInstance().getCoveredTargets());
+        return Archive.getArchiveInstance().getCoveredTargetsView();
     }
 
     /**
@@ -382,12 +596,16 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
     }
 
     /**
-     * Returns the goals that have not been covered by the test cases stored in the archive.
+     * Returns the goals that have not been covered by the test cases stored in the archive, as a
+     * read-only live view (see {@link Archive#getUncoveredTargetsView()}).
+     * <p>
+     * As for {@link #getCoveredGoals()}, the set is not a copy: it reflects later updates of the
+     * archive and must not be modified.
      *
      * @return
      */
     protected Set<TestFitnessFunction> getUncoveredGoals() {
-        return new LinkedHashSet<>(Archive.getArchiveInstance().getUncoveredTargets());
+        return Archive.getArchiveInstance().getUncoveredTargetsView();
     }
 
     /**
@@ -485,7 +703,25 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
      */
     @Override
     protected void calculateFitness(TestChromosome c) {
-        this.fitnessFunctions.forEach(fitnessFunction -> fitnessFunction.getFitness(c));
+        this.execute(c);
+
+        // goals that can be settled from one pass over the trace are evaluated in bulk, the
+        // others one by one
+        this.splitGoals();
+        List<TestFitnessFunction> unsettled = null;
+        for (int i = 0; i < BATCH_EVALUATORS.length; i++) {
+            final List<TestFitnessFunction> batch = this.batchGoals.get(i);
+            if (!batch.isEmpty()) {
+                if (unsettled == null) {
+                    unsettled = new ArrayList<>();
+                }
+                BATCH_EVALUATORS[i].evaluate(c, batch, unsettled);
+            }
+        }
+        this.otherGoals.forEach(fitnessFunction -> fitnessFunction.getFitness(c));
+        if (unsettled != null) {
+            unsettled.forEach(fitnessFunction -> fitnessFunction.getFitness(c));
+        }
 
         // if one of the coverage criterion is Criterion.EXCEPTION, then we have to analyse the results
         // of the execution to look for generated exceptions
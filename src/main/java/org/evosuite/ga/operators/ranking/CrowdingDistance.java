@@ -36,27 +36,61 @@
  */
 package org.evosuite.ga.operators.ranking;
 
+import org.evosuite.Properties;
 import org.evosuite.ga.Chromosome;
 import org.evosuite.ga.FitnessFunction;
-import org.evosuite.ga.comparators.SortByFitness;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class implements different variants of Crowding Distance for many-objective problems
  *
+ * <p>
+ * The fitness values are read once per front into primitive columns or a {@link FitnessMatrix},
+ * and fronts are sorted as arrays of indices. The arrays are kept between calls and only
+ * reallocated when a front or goal set outgrows them, so an instance should be reused across
+ * generations (and, like the scratch arrays, not shared between threads). With
+ * {@link Properties#PARALLEL_CROWDING_DISTANCE}, the subvector-dominance and epsilon-dominance
+ * assignments of large fronts are spread over the ranking pool; their results do not depend on
+ * the order of the computations.
+ * </p>
+ *
  * @author Annibale Panichella
  */
 public class CrowdingDistance<T extends Chromosome<T>> implements Serializable {
 
     private static final long serialVersionUID = 5700682318003298299L;
 
+    /**
+     * Minimal number of fitness values for which the assignments are computed in parallel
+     */
+    private static final long PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int ROW_SHARD_SIZE = 8;
+
+    private static final int GOAL_SHARD_SIZE = 256;
+
+    // scratch buffers, reused between calls
+    private transient double[] column;
+    private transient double[] distances;
+    private transient int[] order;
+    private transient int[] mergeBuffer;
+    private transient double[] matrixBuffer;
+
     /**
      * Method used to assign the 'traditional' Crowding Distance.
      *
+     * <p>
+     * As before, the front ends up sorted by the last goal of the given list (ties keep their
+     * previous order), but the sorting of each goal is done on an index array keyed by a primitive
+     * column of fitness values, and the front itself is only reordered once.
+     * </p>
+     *
      * @param front front of non-dominated solutions/tests
      * @param set   list of goals/targets (e.g., branches) to consider
      */
@@ -75,7 +109,11 @@ public class CrowdingDistance<T extends Chromosome<T>> implements Serializable {
             return;
         }
 
-        front.forEach(t -> t.setDistance(0.0));
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            distances[i] = 0.0;
+        }
 
         double objetiveMaxn;
         double objetiveMinn;
@@ -83,22 +121,30 @@ public class CrowdingDistance<T extends Chromosome<T>> implements Serializable {
 
         for (final FitnessFunction<T> ff : set) {
             // Sort the population by Fit n
-            front.sort(new SortByFitness<>(ff, false));
+            FitnessMatrix.fillColumn(front, ff, column);
+            sortByColumn(size);
 
-            objetiveMinn = front.get(0).getFitness(ff);
-            objetiveMaxn = front.get(front.size() - 1).getFitness(ff);
+            objetiveMinn = column[order[0]];
+            objetiveMaxn = column[order[size - 1]];
 
             // set crowding distance
-            front.get(0).setDistance(Double.POSITIVE_INFINITY);
-            front.get(size - 1).setDistance(Double.POSITIVE_INFINITY);
+            distances[order[0]] = Double.POSITIVE_INFINITY;
+            distances[order[size - 1]] = Double.POSITIVE_INFINITY;
 
             for (int j = 1; j < size - 1; j++) {
-                distance = front.get(j + 1).getFitness(ff) - front.get(j - 1).getFitness(ff);
+                distance = column[order[j + 1]] - column[order[j - 1]];
                 distance = distance / (objetiveMaxn - objetiveMinn);
-                distance += front.get(j).getDistance();
-                front.get(j).setDistance(distance);
+                distance += distances[order[j]];
+                distances[order[j]] = distance;
             }
         }
+
+        final List<T> unsorted = new ArrayList<>(front);
+        for (int j = 0; j < size; j++) {
+            final T solution = unsorted.get(order[j]);
+            solution.setDistance(distances[order[j]]);
+            front.set(j, solution);
+        }
     }
 
     /**
@@ -118,27 +164,49 @@ public class CrowdingDistance<T extends Chromosome<T>> implements Serializable {
             return;
         }
 
-        front.forEach(t -> t.setDistance(Double.MAX_VALUE));
-
-        int dominate1, dominate2;
-        for (int i = 0; i < front.size() - 1; i++) {
-            T p1 = front.get(i);
-            for (int j = i + 1; j < front.size(); j++) {
-                T p2 = front.get(j);
-                dominate1 = 0;
-                dominate2 = 0;
-                for (final FitnessFunction<T> ff : set) {
-                    double value1 = p1.getFitness(ff);
-                    double value2 = p2.getFitness(ff);
-                    if (value1 < value2)
-                        dominate1++;
-                    else if (value1 > value2)
-                        dominate2++;
+        final FitnessMatrix<T> matrix = FitnessMatrix.of(front, set, matrixBuffer);
+        matrixBuffer = matrix.getValues();
+        ensureCapacity(size);
+
+        if (isParallel(matrix)) {
+            final double[] result = distances;
+            DominanceMatrix.getPool().invoke(new Shards((from, to) -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = subvectorDominance(matrix, i);
                 }
-                p1.setDistance(Math.min(dominate1, p1.getDistance()));
-                p2.setDistance(Math.min(dominate2, p2.getDistance()));
+            }, 0, size, ROW_SHARD_SIZE));
+        } else {
+            for (int i = 0; i < size; i++) {
+                distances[i] = subvectorDominance(matrix, i);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            front.get(i).setDistance(distances[i]);
+        }
+    }
+
+    /**
+     * @return the minimum, over the other solutions, of the number of goals for which solution
+     * {@code i} is better than the other solution
+     */
+    private static double subvectorDominance(FitnessMatrix<?> matrix, int i) {
+        final double[] values = matrix.getValues();
+        final int numGoals = matrix.getNumGoals();
+        final int rowI = i * numGoals;
+        double distance = Double.MAX_VALUE;
+        for (int j = 0; j < matrix.getNumSolutions(); j++) {
+            if (j == i) {
+                continue;
             }
+            final int rowJ = j * numGoals;
+            int dominate = 0;
+            for (int g = 0; g < numGoals; g++) {
+                if (values[rowI + g] < values[rowJ + g])
+                    dominate++;
+            }
+            distance = Math.min(dominate, distance);
         }
+        return distance;
     }
 
     /**
@@ -152,21 +220,55 @@ public class CrowdingDistance<T extends Chromosome<T>> implements Serializable {
      * @param set   set of goals/targets (e.g., branches) to consider
      */
     public void fastEpsilonDominanceAssignment(List<T> front, Set<? extends FitnessFunction<T>> set) {
-        double value;
-        front.forEach(test -> test.setDistance(0));
+        final int size = front.size();
+        final FitnessMatrix<T> matrix = FitnessMatrix.of(front, set, matrixBuffer);
+        matrixBuffer = matrix.getValues();
+        ensureCapacity(size);
+        Arrays.fill(distances, 0, size, 0.0);
 
-        for (final FitnessFunction<T> ff : set) {
+        if (isParallel(matrix)) {
+            final double[] result = distances;
+            DominanceMatrix.getPool().invoke(new Shards((from, to) -> {
+                final double[] shard = new double[size];
+                epsilonDominance(matrix, from, to, shard, new int[size]);
+                synchronized (result) {
+                    for (int i = 0; i < size; i++) {
+                        result[i] = Math.max(result[i], shard[i]);
+                    }
+                }
+            }, 0, matrix.getNumGoals(), GOAL_SHARD_SIZE));
+        } else {
+            epsilonDominance(matrix, 0, matrix.getNumGoals(), distances, order);
+        }
+        for (int i = 0; i < size; i++) {
+            front.get(i).setDistance(distances[i]);
+        }
+    }
+
+    /**
+     * For each goal in {@code [from, to)} whose values are not all equal, raises the distance of
+     * the solutions with the minimal value to the fraction of solutions that do not have it.
+     *
+     * @param minSet scratch array for the indices of the solutions with the minimal value
+     */
+    private static void epsilonDominance(FitnessMatrix<?> matrix, int from, int to, double[] distances,
+                                         int[] minSet) {
+        final double[] values = matrix.getValues();
+        final int numGoals = matrix.getNumGoals();
+        final int size = matrix.getNumSolutions();
+        double value;
+        for (int g = from; g < to; g++) {
             double min = Double.POSITIVE_INFINITY;
-            List<T> minSet = new ArrayList<>(front.size());
+            int minSetSize = 0;
             double max = 0;
-            for (T test : front) {
-                value = test.getFitness(ff);
+            for (int i = 0; i < size; i++) {
+                value = values[i * numGoals + g];
                 if (value < min) {
                     min = value;
-                    minSet.clear();
-                    minSet.add(test);
+                    minSetSize = 0;
+                    minSet[minSetSize++] = i;
                 } else if (value == min)
-                    minSet.add(test);
+                    minSet[minSetSize++] = i;
 
                 if (value > max) {
                     max = value;
@@ -176,12 +278,103 @@ public class CrowdingDistance<T extends Chromosome<T>> implements Serializable {
             if (max == min)
                 continue;
 
-            for (T test : minSet) {
-                double numer = (front.size() - minSet.size());
-                double demon = front.size();
-                test.setDistance(Math.max(test.getDistance(), numer / demon));
+            final double numer = (size - minSetSize);
+            final double demon = size;
+            for (int k = 0; k < minSetSize; k++) {
+                distances[minSet[k]] = Math.max(distances[minSet[k]], numer / demon);
             }
         }
     }
 
+    /**
+     * @return whether the assignment of the given front is computed in parallel
+     */
+    private boolean isParallel(FitnessMatrix<?> matrix) {
+        return Properties.PARALLEL_CROWDING_DISTANCE
+                && (long) matrix.getNumSolutions() * matrix.getNumGoals() >= PARALLEL_THRESHOLD
+                && DominanceMatrix.getPool().getParallelism() > 1;
+    }
+
+    private void ensureCapacity(int size) {
+        if (order == null || order.length < size) {
+            final int capacity = Math.max(size, 16);
+            column = new double[capacity];
+            distances = new double[capacity];
+            order = new int[capacity];
+            mergeBuffer = new int[capacity];
+        }
+    }
+
+    /**
+     * Stable merge sort of the first {@code size} entries of {@link #order} by their value in
+     * {@link #column}, in ascending order (as {@code SortByFitness} does for minimized goals).
+     */
+    private void sortByColumn(int size) {
+        int[] from = order;
+        int[] to = mergeBuffer;
+        for (int width = 1; width < size; width *= 2) {
+            for (int start = 0; start < size; start += 2 * width) {
+                final int mid = Math.min(start + width, size);
+                final int end = Math.min(start + 2 * width, size);
+                int i = start;
+                int j = mid;
+                int k = start;
+                while (i < mid && j < end) {
+                    to[k++] = column[from[j]] < column[from[i]] ? from[j++] : from[i++];
+                }
+                while (i < mid) {
+                    to[k++] = from[i++];
+                }
+                while (j < end) {
+                    to[k++] = from[j++];
+                }
+            }
+            int[] tmp = from;
+            from = to;
+            to = tmp;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, size);
+        }
+    }
+
+    /**
+     * Work on a range of indices (solutions or goals)
+     */
+    private interface RangeAction {
+        void compute(int from, int to);
+    }
+
+    /**
+     * Splits a range of indices in halves until shards of at most {@code shardSize} remain
+     */
+    private static final class Shards extends RecursiveAction {
+
+        private static final long serialVersionUID = 2236155424530651466L;
+
+        private final RangeAction action;
+
+        private final int from;
+
+        private final int to;
+
+        private final int shardSize;
+
+        Shards(RangeAction action, int from, int to, int shardSize) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.shardSize = shardSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= shardSize) {
+                action.compute(from, to);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new Shards(action, from, mid, shardSize), new Shards(action, mid, to, shardSize));
+        }
+    }
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.operators.ranking;
+
+import org.evosuite.Properties;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * The pairwise dominance relation of the solutions of a {@link FitnessMatrix}, stored as one
+ * flag per ordered pair: {@link #dominates(int, int)} is a single array access.
+ * </p>
+ *
+ * <p>
+ * The relation is computed in square tiles of {@link #TILE} × {@link #TILE} pairs, so that the
+ * rows of both tiles stay in cache while they are compared. Every tile of the upper triangle is
+ * computed by exactly one task of a fork-join pool (with {@link Properties#RANKING_THREADS}
+ * threads), which writes the flags of its pairs in both directions; no two tasks write the same
+ * flag. Small populations are compared on the calling thread.
+ * </p>
+ *
+ * <p>
+ * A matrix can also be {@link #update(FitnessMatrix, DominanceMatrix, int[]) updated} from the
+ * matrix of a previous population: only the pairs involving a new solution are compared.
+ * </p>
+ */
+public final class DominanceMatrix {
+
+    /**
+     * Number of solutions per side of a tile
+     */
+    static final int TILE = 64;
+
+    private static ForkJoinPool pool = null;
+
+    private final FitnessMatrix<?> fitness;
+
+    private final int n;
+
+    /**
+     * flags[i * n + j] is 1 iff solution i dominates solution j
+     */
+    private final byte[] flags;
+
+    /**
+     * The matrix this one is updated from, if any, and for each solution its index in that
+     * matrix (-1 for a solution it does not know); only set while the matrix is computed
+     */
+    private DominanceMatrix previous;
+
+    private int[] previousIndex;
+
+    private DominanceMatrix(FitnessMatrix<?> fitness, DominanceMatrix previous, int[] previousIndex) {
+        this.fitness = fitness;
+        this.n = fitness.getNumSolutions();
+        this.flags = new byte[n * n];
+        this.previous = previous;
+        this.previousIndex = previousIndex;
+    }
+
+    /**
+     * Computes the dominance relation of the solutions of the given matrix
+     *
+     * @param fitness the fitness values of the solutions
+     * @return the dominance relation
+     */
+    public static DominanceMatrix of(FitnessMatrix<?> fitness) {
+        return compute(new DominanceMatrix(fitness, null, null));
+    }
+
+    /**
+     * Computes the dominance relation of the solutions of the given matrix, copying the relation
+     * between solutions that the previous matrix already compared. The caller guarantees that
+     * those solutions have the same fitness values (for the same goals) in both matrices.
+     *
+     * @param fitness       the fitness values of the solutions
+     * @param previous      a dominance relation computed before
+     * @param previousIndex for each solution, its index in {@code previous}, or -1
+     * @return the dominance relation
+     */
+    public static DominanceMatrix update(FitnessMatrix<?> fitness, DominanceMatrix previous, int[] previousIndex) {
+        return compute(new DominanceMatrix(fitness, previous, previousIndex));
+    }
+
+    private static DominanceMatrix compute(DominanceMatrix matrix) {
+        final int tiles = (matrix.n + TILE - 1) / TILE;
+        if (tiles <= 1 || getPool().getParallelism() <= 1) {
+            for (int tile = 0; tile < tiles; tile++) {
+                matrix.computeTileRow(tile);
+            }
+        } else {
+            getPool().invoke(new TileRows(matrix, 0, tiles));
+        }
+        // do not keep the previous generations alive
+        matrix.previous = null;
+        matrix.previousIndex = null;
+        return matrix;
+    }
+
+    /**
+     * @return the pool shared by the parallel ranking operators of this package
+     */
+    static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            int threads = Properties.RANKING_THREADS > 0
+                    ? Properties.RANKING_THREADS
+                    : Runtime.getRuntime().availableProcessors();
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    public FitnessMatrix<?> getFitnessMatrix() {
+        return fitness;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return whether solution {@code i} dominates solution {@code j}
+     */
+    public boolean dominates(int i, int j) {
+        return flags[i * n + j] != 0;
+    }
+
+    /**
+     * @return for each solution, the number of solutions dominating it
+     */
+    public int[] countDominating() {
+        final int[] counts = new int[n];
+        // row by row, to read the flags sequentially
+        for (int i = 0; i < n; i++) {
+            final int row = i * n;
+            for (int j = 0; j < n; j++) {
+                counts[j] += flags[row + j];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Computes the tiles (tileRow, tileColumn) with tileColumn >= tileRow
+     */
+    private void computeTileRow(int tileRow) {
+        final int rowStart = tileRow * TILE;
+        final int rowEnd = Math.min(rowStart + TILE, n);
+        for (int columnStart = rowStart; columnStart < n; columnStart += TILE) {
+            final int columnEnd = Math.min(columnStart + TILE, n);
+            for (int i = rowStart; i < rowEnd; i++) {
+                // on the diagonal tile, only compare each pair once
+                final int oldI = previousIndex == null ? -1 : previousIndex[i];
+                for (int j = Math.max(columnStart, i + 1); j < columnEnd; j++) {
+                    final int oldJ = oldI < 0 ? -1 : previousIndex[j];
+                    if (oldJ >= 0) {
+                        flags[i * n + j] = previous.flags[oldI * previous.n + oldJ];
+                        flags[j * n + i] = previous.flags[oldJ * previous.n + oldI];
+                        continue;
+                    }
+                    final int flag = fitness.compare(i, j);
+                    if (flag == -1) {
+                        flags[i * n + j] = 1;
+                    } else if (flag == 1) {
+                        flags[j * n + i] = 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a range of tile rows until single rows remain. The rows at the top of the triangle
+     * hold more tiles than the rows at the bottom, which work stealing evens out.
+     */
+    private static final class TileRows extends RecursiveAction {
+
+        private static final long serialVersionUID = -2470587245862390386L;
+
+        private final DominanceMatrix matrix;
+
+        private final int from;
+
+        private final int to;
+
+        TileRows(DominanceMatrix matrix, int from, int to) {
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                matrix.computeTileRow(from);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new TileRows(matrix, from, mid), new TileRows(matrix, mid, to));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.operators.ranking;
+
+import org.evosuite.ga.Chromosome;
+import org.evosuite.ga.FitnessFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * Ranks the solutions with the Efficient Non-dominated Sort using binary search (ENS-BS) of
+ * Zhang et al. It produces the same fronts, ranks and distances as
+ * {@link FastNonDominatedSorting}, but without computing the full dominance relation.
+ * </p>
+ *
+ * <p>
+ * The fitness values are first extracted into a {@link FitnessMatrix}, and the solutions are
+ * sorted lexicographically by their rows. In this order no solution can be dominated by a
+ * solution that comes after it, so each solution can be assigned to its front as soon as it is
+ * visited: it belongs to the first front none of whose members dominates it. If a solution is
+ * dominated by some member of front {@code k}, it is also dominated by some member of every
+ * front before {@code k}, so that front can be found with a binary search over the fronts.
+ * Most solutions are only compared with a few members of a few fronts, instead of with the
+ * whole population.
+ * </p>
+ *
+ * <p>
+ * The members of each front are then listed in the order {@link FastNonDominatedSorting} lists
+ * them, so that crowding distances and every later tie-break see the same fronts: the first front
+ * in population order, and each later front in the order its members are released by the
+ * members of the previous front. A solution is released by the last member of the previous
+ * front that dominates it, and the solutions released by the same member come in population
+ * order.
+ * </p>
+ *
+ * @param <T> the type of chromosomes
+ */
+public class EfficientNonDominatedSorting<T extends Chromosome<T>> implements RankingFunction<T> {
+
+    private static final long serialVersionUID = 4094335215766734962L;
+
+    /**
+     * An array containing all the fronts found during the search
+     */
+    private List<T>[] ranking_;
+
+    @Override
+    public void computeRankingAssignment(List<T> solutions,
+                                         Set<? extends FitnessFunction<T>> uncovered_goals) {
+        ranking_ = getNonDominatedFronts(FitnessMatrix.of(solutions, uncovered_goals));
+    }
+
+    /**
+     * Sorts the solutions of the given matrix into fronts.
+     *
+     * @param matrix the fitness values of the solutions to rank
+     * @return the list of fronts, ordered by rank
+     */
+    @SuppressWarnings("unchecked")
+    private List<T>[] getNonDominatedFronts(FitnessMatrix<T> matrix) {
+        final List<T> solutionSet = matrix.getSolutions();
+        final int[] order = matrix.sortLexicographically();
+
+        // front[k][0 .. frontSize[k]) contains the indices of the solutions of front k
+        int[][] front = new int[4][];
+        int[] frontSize = new int[4];
+        int numFronts = 0;
+
+        for (int s : order) {
+            int low = 0;
+            int high = numFronts;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (isDominated(matrix, s, front[mid], frontSize[mid])) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            if (low == numFronts) {
+                if (numFronts == front.length) {
+                    front = Arrays.copyOf(front, numFronts * 2);
+                    frontSize = Arrays.copyOf(frontSize, numFronts * 2);
+                }
+                front[numFronts] = new int[8];
+                numFronts++;
+            }
+            if (frontSize[low] == front[low].length) {
+                front[low] = Arrays.copyOf(front[low], frontSize[low] * 2);
+            }
+            front[low][frontSize[low]++] = s;
+        }
+
+        // the first front is listed in population order
+        Arrays.sort(front[0], 0, frontSize[0]);
+        for (int k = 1; k < numFronts; k++) {
+            sortByRelease(matrix, front[k], frontSize[k], front[k - 1], frontSize[k - 1]);
+        }
+
+        List<T>[] fronts = new ArrayList[numFronts];
+        for (int k = 0; k < numFronts; k++) {
+            fronts[k] = new ArrayList<>(frontSize[k]);
+            for (int j = 0; j < frontSize[k]; j++) {
+                T solution = solutionSet.get(front[k][j]);
+                solution.setRank(k + 1);
+                solution.setDistance(Double.MAX_VALUE);
+                fronts[k].add(solution);
+            }
+        }
+        return fronts;
+    }
+
+    /**
+     * Sorts the members of a front by the position of the member of the previous front that
+     * releases them, i.e., the last one dominating them, and then by population order
+     *
+     * @param members  the members of the front to sort
+     * @param size     the number of members of the front
+     * @param previous the members of the previous front, already in their final order
+     * @param prevSize the number of members of the previous front
+     */
+    private static void sortByRelease(FitnessMatrix<?> matrix, int[] members, int size,
+                                      int[] previous, int prevSize) {
+        final long[] keys = new long[size];
+        for (int j = 0; j < size; j++) {
+            int releasedBy = prevSize - 1;
+            // every member of a later front is dominated by some member of the previous front
+            while (releasedBy > 0 && !matrix.dominates(previous[releasedBy], members[j])) {
+                releasedBy--;
+            }
+            keys[j] = ((long) releasedBy << 32) | members[j];
+        }
+        Arrays.sort(keys);
+        for (int j = 0; j < size; j++) {
+            members[j] = (int) keys[j];
+        }
+    }
+
+    /**
+     * @return whether solution {@code s} is dominated by one of the first {@code size} members of
+     * the given front
+     */
+    private static boolean isDominated(FitnessMatrix<?> matrix, int s, int[] members, int size) {
+        // the members added last are the closest to s in the lexicographic order, and the most
+        // likely to dominate it
+        for (int j = size - 1; j >= 0; j--) {
+            if (matrix.dominates(members[j], s)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<T> getSubfront(int rank) {
+        return ranking_[rank];
+    }
+
+    @Override
+    public int getNumberOfSubfronts() {
+        return ranking_.length;
+    }
+}
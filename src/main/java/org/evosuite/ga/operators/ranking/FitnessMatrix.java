@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.operators.ranking;
+
+import org.evosuite.ga.Chromosome;
+import org.evosuite.ga.FitnessFunction;
+import org.evosuite.ga.GoalRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Fitness values of a population for a set of goals, extracted once into a row-major
+ * {@code double[]} (one row per solution, one column per goal), so that ranking algorithms do
+ * not have to look up every value in the fitness maps of the chromosomes over and over again.
+ *
+ * @param <T> the type of chromosomes
+ */
+public final class FitnessMatrix<T extends Chromosome<T>> {
+
+    private final List<T> solutions;
+
+    private final List<FitnessFunction<T>> goals;
+
+    private final int numGoals;
+
+    private final double[] values;
+
+    private FitnessMatrix(List<T> solutions, List<FitnessFunction<T>> goals, double[] buffer) {
+        this.solutions = solutions;
+        this.goals = goals;
+        this.numGoals = goals.size();
+        final int length = solutions.size() * numGoals;
+        this.values = buffer != null && buffer.length >= length ? buffer : new double[length];
+
+        final int[] ids = new int[numGoals];
+        for (int g = 0; g < numGoals; g++) {
+            ids[g] = GoalRegistry.getInstance().getId(goals.get(g));
+        }
+        for (int i = 0; i < solutions.size(); i++) {
+            final T solution = solutions.get(i);
+            final int row = i * numGoals;
+            for (int g = 0; g < numGoals; g++) {
+                values[row + g] = getFitness(solution, ids[g], goals.get(g));
+            }
+        }
+    }
+
+    /**
+     * Extracts the fitness values of the given solutions for the given goals. If no goals are
+     * given, the goals of the first solution are used, as {@code DominanceComparator} does.
+     *
+     * @param solutions the solutions (rows)
+     * @param goals     the goals (columns), may be {@code null}
+     * @return the matrix
+     */
+    public static <T extends Chromosome<T>> FitnessMatrix<T> of(List<T> solutions,
+                                                                Collection<? extends FitnessFunction<T>> goals) {
+        return of(solutions, goals, null);
+    }
+
+    /**
+     * Extracts the fitness values of the given solutions for the given goals, into the given
+     * buffer if it is large enough. The buffer then backs the matrix, so it must not be reused
+     * while the matrix is in use.
+     *
+     * @param solutions the solutions (rows)
+     * @param goals     the goals (columns), may be {@code null}
+     * @param buffer    a scratch array to reuse, may be {@code null}
+     * @return the matrix
+     */
+    public static <T extends Chromosome<T>> FitnessMatrix<T> of(List<T> solutions,
+                                                                Collection<? extends FitnessFunction<T>> goals,
+                                                                double[] buffer) {
+        final List<FitnessFunction<T>> columns = new ArrayList<>();
+        if (goals != null) {
+            columns.addAll(goals);
+        } else if (!solutions.isEmpty()) {
+            columns.addAll(solutions.get(0).getFitnessValues().keySet());
+        }
+        return new FitnessMatrix<>(solutions, columns, buffer);
+    }
+
+    /**
+     * Extracts the fitness values of the given solutions for a single goal.
+     *
+     * @param solutions the solutions
+     * @param goal      the goal
+     * @param column    receives the fitness of solution {@code i} at index {@code i}
+     */
+    public static <T extends Chromosome<T>> void fillColumn(List<T> solutions, FitnessFunction<T> goal,
+                                                            double[] column) {
+        final int id = GoalRegistry.getInstance().getId(goal);
+        for (int i = 0; i < solutions.size(); i++) {
+            column[i] = getFitness(solutions.get(i), id, goal);
+        }
+    }
+
+    private static <T extends Chromosome<T>> double getFitness(T solution, int id, FitnessFunction<T> goal) {
+        return solution.hasFitness(id)
+                ? solution.getFitness(id, 0.0)
+                : solution.getFitness(goal); // computes the missing value
+    }
+
+    public List<T> getSolutions() {
+        return solutions;
+    }
+
+    public List<FitnessFunction<T>> getGoals() {
+        return goals;
+    }
+
+    public int getNumSolutions() {
+        return solutions.size();
+    }
+
+    public int getNumGoals() {
+        return numGoals;
+    }
+
+    /**
+     * @return the fitness of solution {@code i} for goal {@code g}
+     */
+    public double get(int i, int g) {
+        return values[i * numGoals + g];
+    }
+
+    /**
+     * @return the backing row-major array, which may be longer than the matrix
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Compares two solutions by Pareto dominance, with the same convention as
+     * {@code DominanceComparator}.
+     *
+     * @return -1 if solution {@code i} dominates solution {@code j}, 1 if {@code j} dominates
+     * {@code i}, and 0 if they are equal or not comparable
+     */
+    public int compare(int i, int j) {
+        boolean dominates1 = false;
+        boolean dominates2 = false;
+        final int rowI = i * numGoals;
+        final int rowJ = j * numGoals;
+        for (int g = 0; g < numGoals; g++) {
+            final double valueI = values[rowI + g];
+            final double valueJ = values[rowJ + g];
+            if (valueI < valueJ) {
+                dominates1 = true;
+            } else if (valueI > valueJ) {
+                dominates2 = true;
+            }
+            if (dominates1 && dominates2) {
+                return 0;
+            }
+        }
+        if (dominates1 == dominates2) {
+            return 0;
+        }
+        return dominates1 ? -1 : 1;
+    }
+
+    /**
+     * @return whether solution {@code i} dominates solution {@code j}
+     */
+    public boolean dominates(int i, int j) {
+        boolean strictlyBetter = false;
+        final int rowI = i * numGoals;
+        final int rowJ = j * numGoals;
+        for (int g = 0; g < numGoals; g++) {
+            final double valueI = values[rowI + g];
+            final double valueJ = values[rowJ + g];
+            if (valueI > valueJ) {
+                return false;
+            }
+            if (valueI < valueJ) {
+                strictlyBetter = true;
+            }
+        }
+        return strictlyBetter;
+    }
+
+    /**
+     * Compares the rows of two solutions lexicographically. A solution that dominates another one
+     * always comes first in this order.
+     */
+    public int compareLexicographically(int i, int j) {
+        final int rowI = i * numGoals;
+        final int rowJ = j * numGoals;
+        for (int g = 0; g < numGoals; g++) {
+            final int c = Double.compare(values[rowI + g], values[rowJ + g]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sorts the solutions by the lexicographic order of their rows (stable merge sort).
+     *
+     * @return the indices of the solutions in that order
+     */
+    public int[] sortLexicographically() {
+        final int n = getNumSolutions();
+        int[] from = new int[n];
+        for (int i = 0; i < n; i++) {
+            from[i] = i;
+        }
+        int[] to = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int start = 0; start < n; start += 2 * width) {
+                final int mid = Math.min(start + width, n);
+                final int end = Math.min(start + 2 * width, n);
+                int i = start;
+                int j = mid;
+                int k = start;
+                while (i < mid && j < end) {
+                    to[k++] = compareLexicographically(from[j], from[i]) < 0 ? from[j++] : from[i++];
+                }
+                while (i < mid) {
+                    to[k++] = from[i++];
+                }
+                while (j < end) {
+                    to[k++] = from[j++];
+                }
+            }
+            int[] tmp = from;
+            from = to;
+            to = tmp;
+        }
+        return from;
+    }
+
+    /**
+     * Computes the skyline of the solutions, i.e., the solutions that no other solution
+     * dominates, with the sort-first skyline algorithm: in lexicographic order, a solution can
+     * only be dominated by solutions that come before it, and if it is dominated at all, it is
+     * dominated by one of the skyline solutions found so far. So each solution is only compared
+     * with the current skyline, starting from its most recent (and closest) members.
+     *
+     * @return the indices of the non-dominated solutions, in increasing order
+     */
+    public int[] getNonDominated() {
+        final int n = getNumSolutions();
+        final int[] skyline = new int[n];
+        int size = 0;
+        for (int s : sortLexicographically()) {
+            boolean isDominated = false;
+            for (int k = size - 1; k >= 0; k--) {
+                if (dominates(skyline[k], s)) {
+                    isDominated = true;
+                    break;
+                }
+            }
+            if (!isDominated) {
+                skyline[size++] = s;
+            }
+        }
+        final int[] result = Arrays.copyOf(skyline, size);
+        Arrays.sort(result);
+        return result;
+    }
+}
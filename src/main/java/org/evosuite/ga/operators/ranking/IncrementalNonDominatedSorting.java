@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.operators.ranking;
+
+import org.evosuite.ga.Chromosome;
+import org.evosuite.ga.FitnessFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Non-dominated sorting that keeps the dominance relation of the population it ranked last.
+ * </p>
+ *
+ * <p>
+ * From one generation to the next, the population to rank is the union of the surviving parents
+ * and the new offspring. As long as the goals to rank by are the same, the relation between two
+ * survivors has not changed, so only the pairs involving an offspring are compared (see
+ * {@link DominanceMatrix#update(FitnessMatrix, DominanceMatrix, int[])}); individuals discarded
+ * since the last ranking are simply dropped. A solution is only treated as a survivor if it is
+ * the same object with the same fitness values as before. When the goals change (typically, when
+ * goals get covered and the uncovered set shrinks), the whole population is compared again.
+ * </p>
+ *
+ * @param <T> the type of chromosomes
+ */
+public class IncrementalNonDominatedSorting<T extends Chromosome<T>> extends ParallelNonDominatedSorting<T> {
+
+    private static final long serialVersionUID = 6004217236405811934L;
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalNonDominatedSorting.class);
+
+    /**
+     * The goals of the last ranking, in the order of the columns of its matrix
+     */
+    private transient List<FitnessFunction<T>> previousGoals = null;
+
+    private transient Set<FitnessFunction<T>> previousGoalSet = null;
+
+    /**
+     * The dominance relation of the last ranking, and the index of each ranked solution in it
+     */
+    private transient DominanceMatrix previousDominance = null;
+
+    private transient Map<T, Integer> previousIndices = null;
+
+    @Override
+    protected DominanceMatrix computeDominance(List<T> solutions,
+                                               Set<? extends FitnessFunction<T>> uncovered_goals) {
+        final FitnessMatrix<T> matrix;
+        final DominanceMatrix dominance;
+        if (hasSameGoals(uncovered_goals)) {
+            // same columns as before, so that rows can be compared
+            matrix = FitnessMatrix.of(solutions, previousGoals);
+            final FitnessMatrix<?> previousMatrix = previousDominance.getFitnessMatrix();
+            final int[] previousIndex = new int[solutions.size()];
+            int reused = 0;
+            for (int i = 0; i < previousIndex.length; i++) {
+                final Integer index = previousIndices.get(solutions.get(i));
+                if (index != null && hasSameRow(matrix, i, previousMatrix, index)) {
+                    previousIndex[i] = index;
+                    reused++;
+                } else {
+                    previousIndex[i] = -1;
+                }
+            }
+            logger.debug("Reusing the dominance relation of {} out of {} solutions", reused, solutions.size());
+            dominance = DominanceMatrix.update(matrix, previousDominance, previousIndex);
+        } else {
+            matrix = FitnessMatrix.of(solutions, uncovered_goals);
+            dominance = DominanceMatrix.of(matrix);
+        }
+
+        previousGoals = matrix.getGoals();
+        previousGoalSet = new HashSet<>(previousGoals);
+        previousDominance = dominance;
+        previousIndices = new IdentityHashMap<>(solutions.size());
+        for (int i = 0; i < solutions.size(); i++) {
+            previousIndices.put(solutions.get(i), i);
+        }
+        return dominance;
+    }
+
+    private boolean hasSameGoals(Set<? extends FitnessFunction<T>> goals) {
+        return previousGoalSet != null && goals != null
+                && goals.size() == previousGoalSet.size() && previousGoalSet.containsAll(goals);
+    }
+
+    private static boolean hasSameRow(FitnessMatrix<?> matrix, int i, FitnessMatrix<?> previousMatrix, int j) {
+        for (int g = 0; g < matrix.getNumGoals(); g++) {
+            if (Double.compare(matrix.get(i, g), previousMatrix.get(j, g)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
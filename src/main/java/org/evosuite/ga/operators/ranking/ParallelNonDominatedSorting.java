@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.operators.ranking;
+
+import org.evosuite.ga.Chromosome;
+import org.evosuite.ga.FitnessFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * Fast non-dominated sorting whose pairwise dominance comparisons, the quadratic part of the
+ * algorithm, are computed in parallel over a primitive fitness matrix (see
+ * {@link DominanceMatrix}). The fronts are then peeled off the dominance flags as in
+ * {@link FastNonDominatedSorting}, and come out identical to its fronts, in the same order.
+ * </p>
+ *
+ * @param <T> the type of chromosomes
+ */
+public class ParallelNonDominatedSorting<T extends Chromosome<T>> implements RankingFunction<T> {
+
+    private static final long serialVersionUID = -1736052218457185224L;
+
+    /**
+     * An array containing all the fronts found during the search
+     */
+    private List<T>[] ranking_;
+
+    @Override
+    public void computeRankingAssignment(List<T> solutions,
+                                         Set<? extends FitnessFunction<T>> uncovered_goals) {
+        ranking_ = getNonDominatedFronts(solutions, computeDominance(solutions, uncovered_goals));
+    }
+
+    /**
+     * Computes the dominance relation of the given solutions
+     *
+     * @param solutions       the solutions to rank
+     * @param uncovered_goals the goals used for ranking
+     * @return the dominance relation
+     */
+    protected DominanceMatrix computeDominance(List<T> solutions,
+                                               Set<? extends FitnessFunction<T>> uncovered_goals) {
+        return DominanceMatrix.of(FitnessMatrix.of(solutions, uncovered_goals));
+    }
+
+    /**
+     * Sorts the solutions into fronts using their precomputed dominance relation
+     *
+     * @param solutionSet the solutions to rank
+     * @param dominance   the dominance relation of the solutions
+     * @return the list of fronts, ordered by rank
+     */
+    @SuppressWarnings("unchecked")
+    private List<T>[] getNonDominatedFronts(List<T> solutionSet, DominanceMatrix dominance) {
+        final int n = solutionSet.size();
+
+        // dominateMe[i] contains the number of solutions dominating i
+        final int[] dominateMe = dominance.countDominating();
+
+        // the solutions of all fronts, front after front; front i starts at frontStart[i]
+        final int[] members = new int[n];
+        final int[] frontStart = new int[n + 1];
+        int size = 0;
+
+        for (int p = 0; p < n; p++) {
+            solutionSet.get(p).setDistance(Double.MAX_VALUE);
+            if (dominateMe[p] == 0) {
+                members[size++] = p;
+                solutionSet.get(p).setRank(1);
+            }
+        }
+
+        int numFronts = 0;
+        while (frontStart[numFronts] < size) {
+            final int from = frontStart[numFronts];
+            final int to = size;
+            numFronts++;
+            for (int m = from; m < to; m++) {
+                final int p = members[m];
+                for (int q = 0; q < n; q++) {
+                    if (dominance.dominates(p, q) && --dominateMe[q] == 0) {
+                        members[size++] = q;
+                        solutionSet.get(q).setRank(numFronts + 1);
+                    }
+                }
+            }
+            frontStart[numFronts] = to;
+        }
+
+        List<T>[] fronts = new ArrayList[numFronts];
+        for (int i = 0; i < numFronts; i++) {
+            fronts[i] = new ArrayList<>(frontStart[i + 1] - frontStart[i]);
+            for (int m = frontStart[i]; m < frontStart[i + 1]; m++) {
+                fronts[i].add(solutionSet.get(members[m]));
+            }
+        }
+        return fronts;
+    }
+
+    @Override
+    public List<T> getSubfront(int rank) {
+        return ranking_[rank];
+    }
+
+    @Override
+    public int getNumberOfSubfronts() {
+        return ranking_.length;
+    }
+}
@@ -39,15 +39,14 @@ import org.evosuite.Properties;
 import org.evosuite.ga.Chromosome;
 import org.evosuite.ga.FitnessFunction;
 import org.evosuite.ga.comparators.DominanceComparator;
-import org.evosuite.ga.comparators.PreferenceSortingComparator;
 import org.evosuite.utils.Randomness;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class ranks the test cases according to the
@@ -61,6 +60,16 @@ public class RankBasedPreferenceSorting<T extends Chromosome<T>> implements Rank
 
     private static final Logger logger = LoggerFactory.getLogger(RankBasedPreferenceSorting.class);
 
+    /**
+     * Minimal number of fitness values for which the zero front is built in parallel
+     */
+    private static final long PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Number of goals per shard of the zero front
+     */
+    private static final int SHARD_SIZE = 256;
+
     /**
      * A list containing all the fronts found during the search.
      */
@@ -113,31 +122,139 @@ public class RankBasedPreferenceSorting<T extends Chromosome<T>> implements Rank
     }
 
     /**
-     * Returns the first (i.e. non-dominated) sub-front.
+     * Returns the first (i.e. non-dominated) sub-front: for each uncovered goal, the test closest
+     * to covering it, preferring shorter tests and picking ties at random (the criterion of
+     * {@code PreferenceSortingComparator}).
+     *
+     * <p>
+     * Instead of scanning the population once per goal, the fitness values are extracted into a
+     * {@link FitnessMatrix} and the best solution of every goal is tracked in one sweep over its
+     * rows. With {@link Properties#PARALLEL_PREFERENCE_SORTING} and many goals, the goals are
+     * split into shards of a fixed size that are swept in parallel. Ties are broken by coin flips
+     * derived from one seed drawn from {@link Randomness} per ranking, the goal and the solution
+     * (see {@link #coinFlip(long, int, int)}), so the front only depends on the random seed of the
+     * search, and not on whether or how the goals were sharded.
+     * </p>
      *
      * @param solutionSet     the solutions to rank
      * @param uncovered_goals the goals used for ranking
      * @return the non-dominated solutions (first sub-front)
      */
     private List<T> getZeroFront(List<T> solutionSet, Set<? extends FitnessFunction<T>> uncovered_goals) {
-        Set<T> zero_front = new LinkedHashSet<>(solutionSet.size());
-        for (FitnessFunction<T> f : uncovered_goals) {
-            // for each uncovered goal, peak up the best tests using the proper comparator
-            PreferenceSortingComparator<T> comp = new PreferenceSortingComparator<>(f);
-
-            T best = null;
-            for (T test : solutionSet) {
-                int flag = comp.compare(test, best);
-                if (flag < 0 || (flag == 0 && Randomness.nextBoolean())) {
-                    best = test;
+        final FitnessMatrix<T> matrix = FitnessMatrix.of(solutionSet, uncovered_goals);
+        final int numGoals = matrix.getNumGoals();
+        final int[] sizes = new int[solutionSet.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = solutionSet.get(i).size();
+        }
+
+        final int[] best = new int[numGoals];
+        final long seed = Randomness.nextLong();
+        if (!Properties.PARALLEL_PREFERENCE_SORTING || numGoals <= SHARD_SIZE
+                || (long) numGoals * sizes.length < PARALLEL_THRESHOLD
+                || DominanceMatrix.getPool().getParallelism() <= 1) {
+            findBest(matrix, sizes, best, 0, numGoals, seed);
+        } else {
+            DominanceMatrix.getPool().invoke(new GoalShards(matrix, sizes, best, 0, numGoals, seed));
+        }
+
+        // goal order, without duplicates, as a LinkedHashSet would give
+        final boolean[] inFront = new boolean[sizes.length];
+        final List<T> zero_front = new ArrayList<>(Math.min(numGoals, sizes.length));
+        for (int g = 0; g < numGoals; g++) {
+            if (!inFront[best[g]]) {
+                inFront[best[g]] = true;
+                T solution = solutionSet.get(best[g]);
+                solution.setRank(0);
+                zero_front.add(solution);
+            }
+        }
+        return zero_front;
+    }
+
+    /**
+     * Stores in {@code best[g]} the index of the best solution for each goal {@code g} in
+     * {@code [from, to)}.
+     *
+     * @param seed the seed of the tie-breaking coin flips of this ranking
+     */
+    private static void findBest(FitnessMatrix<?> matrix, int[] sizes, int[] best, int from, int to,
+                                 long seed) {
+        final double[] values = matrix.getValues();
+        final int numGoals = matrix.getNumGoals();
+        for (int g = from; g < to; g++) {
+            best[g] = 0;
+        }
+        for (int i = 1; i < sizes.length; i++) {
+            final int row = i * numGoals;
+            for (int g = from; g < to; g++) {
+                final double value = values[row + g];
+                final double bestValue = values[best[g] * numGoals + g];
+                if (value < bestValue) {
+                    best[g] = i;
+                } else if (value == bestValue) {
+                    final int size = sizes[i];
+                    final int bestSize = sizes[best[g]];
+                    if (size < bestSize || (size == bestSize && coinFlip(seed, g, i))) {
+                        best[g] = i;
+                    }
                 }
             }
-            assert best != null;
+        }
+    }
+
+    /**
+     * The coin flip deciding whether {@code solution} replaces the best solution so far of
+     * {@code goal} when they tie. It is a hash (the finalizer of MurmurHash3) of the seed of the
+     * ranking, the goal and the solution, so it does not depend on which shard the goal is in or
+     * in which order the goals are swept.
+     */
+    private static boolean coinFlip(long seed, int goal, int solution) {
+        long z = seed + goal * 0x9E3779B97F4A7C15L + solution * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (z ^ (z >>> 33)) < 0;
+    }
+
+    /**
+     * Splits a range of goals into shards of {@link #SHARD_SIZE} goals, which are swept in
+     * parallel.
+     */
+    private static final class GoalShards extends RecursiveAction {
+
+        private static final long serialVersionUID = 4583311585432866164L;
 
-            best.setRank(0);
-            zero_front.add(best);
+        private final FitnessMatrix<?> matrix;
+
+        private final int[] sizes;
+
+        private final int[] best;
+
+        private final int from;
+
+        private final int to;
+
+        private final long seed;
+
+        GoalShards(FitnessMatrix<?> matrix, int[] sizes, int[] best, int from, int to, long seed) {
+            this.matrix = matrix;
+            this.sizes = sizes;
+            this.best = best;
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SHARD_SIZE) {
+                findBest(matrix, sizes, best, from, to, seed);
+                return;
+            }
+            final int mid = from + Math.max(1, (to - from) / SHARD_SIZE / 2) * SHARD_SIZE;
+            invokeAll(new GoalShards(matrix, sizes, best, from, mid, seed),
+                    new GoalShards(matrix, sizes, best, mid, to, seed));
         }
-        return new ArrayList<>(zero_front);
     }
 
     private List<T> getNonDominatedSolutions(List<T> solutions, DominanceComparator<T> comparator, int frontIndex) {
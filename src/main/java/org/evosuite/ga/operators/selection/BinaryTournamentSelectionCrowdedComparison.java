@@ -20,7 +20,6 @@
 package org.evosuite.ga.operators.selection;
 
 import org.evosuite.ga.Chromosome;
-import org.evosuite.ga.comparators.RankAndCrowdingDistanceComparator;
 import org.evosuite.utils.Randomness;
 
 import java.util.List;
@@ -28,6 +27,14 @@ import java.util.List;
 /**
  * Select an individual from a population using a Crowd Comparison Operator
  *
+ * <p>
+ * The population is walked through in a random permutation, two individuals per tournament; a
+ * new permutation is drawn (with a linear Fisher-Yates shuffle) whenever the previous one is
+ * used up. When parents are selected in a batch ({@link #selectIndices(List, int[], int, int)}),
+ * the ranks and crowding distances of the population are copied once into primitive arrays, and
+ * the tournaments compare these keys, in the same way as {@code RankAndCrowdingDistanceComparator}.
+ * </p>
+ *
  * @author José Campos
  */
 public class BinaryTournamentSelectionCrowdedComparison<T extends Chromosome<T>>
@@ -44,74 +51,109 @@ public class BinaryTournamentSelectionCrowdedComparison<T extends Chromosome<T>>
      */
     private int[] indexes;
 
-    private final RankAndCrowdingDistanceComparator<T> comparator;
+    /**
+     * Whether higher ranks are better, as in {@code RankAndCrowdingDistanceComparator}
+     */
+    private boolean isToMaximize;
+
+    // ranks and crowding distances of the population, copied for a batch of tournaments
+    private transient int[] ranks;
+    private transient double[] distances;
 
     public BinaryTournamentSelectionCrowdedComparison() {
-        this.comparator = new RankAndCrowdingDistanceComparator<>(this.maximize);
+        this.isToMaximize = this.maximize;
     }
 
     public BinaryTournamentSelectionCrowdedComparison(boolean isToMaximize) {
-        this.comparator = new RankAndCrowdingDistanceComparator<>(isToMaximize);
+        this.isToMaximize = isToMaximize;
     }
 
     public BinaryTournamentSelectionCrowdedComparison(BinaryTournamentSelectionCrowdedComparison<?> other) {
         this.index = other.index;
-        this.indexes = other.indexes;
-        this.comparator = new RankAndCrowdingDistanceComparator<>(other.comparator);
+        this.indexes = other.indexes == null ? null : other.indexes.clone();
+        this.isToMaximize = other.isToMaximize;
     }
 
     @Override
     public int getIndex(List<T> population) {
-        if (this.index == 0) // Create the permutation
-            this.indexes = intPermutation(population.size());
-
-        int index1 = this.index;
-        T p1 = population.get(this.indexes[index1]);
-
-        int index2 = this.index + 1;
-        T p2 = population.get(this.indexes[index2]);
+        final int index1 = nextCandidate(population.size());
+        final int index2 = nextCandidate(population.size());
+        final T p1 = population.get(index1);
+        final T p2 = population.get(index2);
+        return compare(p1.getRank(), p1.getDistance(), p2.getRank(), p2.getDistance()) > 0 ? index2 : index1;
+    }
 
-        this.index = (this.index + 2) % (population.size());
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The tournaments of the batch compare the ranks and crowding distances the individuals have
+     * when the batch starts.
+     */
+    @Override
+    public void selectIndices(List<T> population, int[] indices, int from, int to) {
+        final int size = population.size();
+        if (ranks == null || ranks.length < size) {
+            ranks = new int[size];
+            distances = new double[size];
+        }
+        for (int i = 0; i < size; i++) {
+            ranks[i] = population.get(i).getRank();
+            distances[i] = population.get(i).getDistance();
+        }
+        for (int i = from; i < to; i++) {
+            final int index1 = nextCandidate(size);
+            final int index2 = nextCandidate(size);
+            indices[i] = compare(ranks[index1], distances[index1], ranks[index2], distances[index2]) > 0
+                    ? index2 : index1;
+        }
+    }
 
-        int flag = this.comparator.compare(p1, p2);
-        if (flag < 0)
-            return index1;
-        else if (flag > 0)
-            return index2;
+    /**
+     * @return the population index of the next individual of the current permutation, drawing a
+     * new permutation when needed
+     */
+    private int nextCandidate(int size) {
+        if (this.index == 0 || this.indexes == null || this.indexes.length != size) {
+            this.indexes = intPermutation(size);
+            this.index = 0;
+        }
+        final int candidate = this.indexes[this.index];
+        this.index = (this.index + 1) % size;
+        return candidate;
+    }
 
-        return index1; // default
+    /**
+     * Compares two individuals by rank, then by crowding distance (larger is better), as
+     * {@code RankAndCrowdingDistanceComparator} does.
+     *
+     * @return a negative value if the first individual wins, a positive one if the second wins,
+     * and 0 if both have the same rank and distance
+     */
+    private int compare(int rank1, double distance1, int rank2, double distance2) {
+        if (rank1 == rank2 && distance1 == distance2) {
+            return 0;
+        }
+        if (rank1 != rank2) {
+            return (rank1 < rank2) != this.isToMaximize ? -1 : 1;
+        }
+        return distance1 > distance2 ? -1 : 1;
     }
 
     /**
      * Returns a permutation vector between the 0 and (length - 1)
      */
-    private int[] intPermutation(int length) {
-        int[] aux = new int[length];
+    private static int[] intPermutation(int length) {
         int[] result = new int[length];
-
-        // first, create an array from 0 to length - 1
-        // also is needed to create an random array of size length
         for (int i = 0; i < length; i++) {
             result[i] = i;
-            aux[i] = Randomness.nextInt(0, length - 1);
         }
-
-        // sort the random array with effect in result, and then we obtain a
-        // permutation array between 0 and length - 1
-        for (int i = 0; i < length; i++) {
-            for (int j = i + 1; j < length; j++) {
-                if (aux[i] > aux[j]) {
-                    int tmp;
-                    tmp = aux[i];
-                    aux[i] = aux[j];
-                    aux[j] = tmp;
-                    tmp = result[i];
-                    result[i] = result[j];
-                    result[j] = tmp;
-                }
-            }
+        // Fisher-Yates shuffle
+        for (int i = length - 1; i > 0; i--) {
+            int j = Randomness.nextInt(i + 1);
+            int tmp = result[i];
+            result[i] = result[j];
+            result[j] = tmp;
         }
-
         return result;
     }
 
@@ -121,6 +163,6 @@ public class BinaryTournamentSelectionCrowdedComparison<T extends Chromosome<T>>
     @Override
     public void setMaximize(boolean max) {
         super.setMaximize(max);
-        this.comparator.setMaximize(max);
+        this.isToMaximize = max;
     }
 }
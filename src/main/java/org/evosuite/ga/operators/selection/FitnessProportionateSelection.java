@@ -23,12 +23,20 @@ import org.evosuite.ga.Chromosome;
 import org.evosuite.utils.Randomness;
 
 import java.util.List;
-import java.util.stream.DoubleStream;
 
 
 /**
  * Roulette wheel selection
  *
+ * <p>
+ * The roulette wheel is built once per call of {@link #selectIndices(List, int[], int, int)} (and
+ * so of {@link #select(List, int)}) as an array of prefix sums of the fitness values, and every
+ * pick of that call is a binary search in it. A pick draws the same single random number as a
+ * linear walk over the population would, and lands on the same individual. A direct call of
+ * {@link #getIndex(List)} builds the wheel for itself, as the population or its fitness values
+ * may have changed since the last call.
+ * </p>
+ *
  * @author Gordon Fraser
  */
 public class FitnessProportionateSelection<T extends Chromosome<T>> extends SelectionFunction<T> {
@@ -39,6 +47,8 @@ public class FitnessProportionateSelection<T extends Chromosome<T>> extends Sele
     public FitnessProportionateSelection(FitnessProportionateSelection<?> other) {
         // Copy Constructor
         this.sumValue = other.sumValue;
+        this.prefixSums = other.prefixSums == null ? null : other.prefixSums.clone();
+        this.size = other.size;
     }
 
     private static final long serialVersionUID = 5206421079815585026L;
@@ -49,11 +59,32 @@ public class FitnessProportionateSelection<T extends Chromosome<T>> extends Sele
      */
     private double sumValue = 0.0;
 
+    /**
+     * prefixSums[i] is the sum of the (possibly inverted) fitness values of the individuals 0 to
+     * i of the population the wheel was built for
+     */
+    private double[] prefixSums = null;
+
+    /**
+     * Size of the population the wheel was built for
+     */
+    private int size = -1;
+
+    /**
+     * Whether the wheel was built for the picks of the current call of
+     * {@link #selectIndices(List, int[], int, int)}
+     */
+    private transient boolean wheelReady = false;
+
     /**
      * {@inheritDoc}
      */
     @Override
     public int getIndex(List<T> population) {
+        if (!wheelReady) {
+            setSum(population);
+        }
+
         //special case
         if (sumValue == 0d) {
             //here does not matter whether maximize or not.
@@ -61,21 +92,23 @@ public class FitnessProportionateSelection<T extends Chromosome<T>> extends Sele
             return Randomness.nextInt(population.size());
         }
 
-        double rnd = Randomness.nextDouble() * sumValue;
-
-        for (int i = 0; i < population.size(); i++) {
-            double fit = population.get(i).getFitness();
-
-            if (!maximize)
-                fit = invert(fit);
-
-            if (fit >= rnd)
-                return i;
-            else
-                rnd = rnd - fit;
+        final double rnd = Randomness.nextDouble() * sumValue;
+
+        // first individual whose prefix sum reaches rnd
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (prefixSums[mid] >= rnd) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
         }
+        if (prefixSums[low] >= rnd)
+            return low;
 
-        //now this should never happens, but possible issues with rounding errors in for example "rnd = rnd - fit"
+        //now this should never happens, but possible issues with rounding errors
         //in such a case, we just return a random index and we log it
 
         logger.debug("ATTENTION: Possible issue in FitnessProportionateSelection");
@@ -83,14 +116,24 @@ public class FitnessProportionateSelection<T extends Chromosome<T>> extends Sele
     }
 
     /**
-     * Calculate total sum of fitnesses
+     * Builds the roulette wheel: prefix sums of the fitnesses, and their total
      *
      * @param population
      */
     private void setSum(List<T> population) {
-        DoubleStream fitnessValues = population.stream().mapToDouble(Chromosome::getFitness);
-        if (!maximize) fitnessValues = fitnessValues.map(FitnessProportionateSelection::invert);
-        sumValue = fitnessValues.sum();
+        size = population.size();
+        if (prefixSums == null || prefixSums.length < size) {
+            prefixSums = new double[size];
+        }
+        double sum = 0.0;
+        for (int i = 0; i < size; i++) {
+            double fit = population.get(i).getFitness();
+            if (!maximize)
+                fit = invert(fit);
+            sum += fit;
+            prefixSums[i] = sum;
+        }
+        sumValue = sum;
     }
 
     /*
@@ -103,13 +146,17 @@ public class FitnessProportionateSelection<T extends Chromosome<T>> extends Sele
     /**
      * {@inheritDoc}
      * <p>
-     * Return n parents
+     * Builds the roulette wheel once for all the picks
      */
     @Override
-    public List<T> select(List<T> population, int number) {
-
+    public void selectIndices(List<T> population, int[] indices, int from, int to) {
         setSum(population);
-        return super.select(population, number);
+        wheelReady = true;
+        try {
+            super.selectIndices(population, indices, from, to);
+        } finally {
+            wheelReady = false;
+        }
     }
 
 }
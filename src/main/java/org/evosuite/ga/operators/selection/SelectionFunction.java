@@ -26,9 +26,6 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
-
-import static java.util.stream.Collectors.toCollection;
 
 /**
  * Abstract base class of selection functions. Can be used to choose the parents for mutation or
@@ -76,10 +73,41 @@ public abstract class SelectionFunction<T extends Chromosome<T>> implements Seri
      * @return a {@link List} object.
      */
     public List<T> select(List<T> population, int number) {
-        return Stream.generate(() -> getIndex(population))
-                .limit(number)
-                .map(population::get)
-                .collect(toCollection(ArrayList::new));
+        final int[] indices = new int[number];
+        selectIndices(population, indices);
+        final List<T> selected = new ArrayList<>(number);
+        for (int index : indices) {
+            selected.add(population.get(index));
+        }
+        return selected;
+    }
+
+    /**
+     * Selects {@code indices.length} parents at once, e.g., all the parents of a generation, and
+     * stores their indices in the population.
+     *
+     * @param population the population to select from
+     * @param indices    receives the indices of the selected individuals
+     */
+    public void selectIndices(List<T> population, int[] indices) {
+        selectIndices(population, indices, 0, indices.length);
+    }
+
+    /**
+     * Selects {@code to - from} parents and stores their indices in the population in
+     * {@code indices[from .. to)}. Subclasses that need to prepare the population before picking
+     * (e.g., to compute a sum of fitness values) do so here, once per call; picking itself must
+     * not allocate.
+     *
+     * @param population the population to select from
+     * @param indices    receives the indices of the selected individuals
+     * @param from       the first index of {@code indices} to fill
+     * @param to         the index after the last index of {@code indices} to fill
+     */
+    public void selectIndices(List<T> population, int[] indices, int from, int to) {
+        for (int i = from; i < to; i++) {
+            indices[i] = getIndex(population);
+        }
     }
 
     /**
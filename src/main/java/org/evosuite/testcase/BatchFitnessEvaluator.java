@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Evaluates many goals of the same kind against the last execution of a test
+ * in a single pass over its trace, instead of calling
+ * {@link TestFitnessFunction#getFitness(TestChromosome)} once per goal.
+ * </p>
+ *
+ * <p>
+ * Implementations must leave the individual (fitness values, covered goals)
+ * and the archive in the same state the per-goal evaluation would have. Goals
+ * that cannot be settled from the single pass are handed back to the caller,
+ * which evaluates them one by one.
+ * </p>
+ */
+public interface BatchFitnessEvaluator {
+
+    /**
+     * @param goal a goal
+     * @return whether this evaluator knows how to evaluate {@code goal}
+     */
+    boolean canEvaluate(TestFitnessFunction goal);
+
+    /**
+     * Computes and stores the fitness of the given goals for the last
+     * execution of the individual, which must be up to date.
+     *
+     * @param individual the executed test
+     * @param goals      goals for which {@link #canEvaluate(TestFitnessFunction)} holds
+     * @param remaining  receives the goals that have to be evaluated one by one
+     */
+    void evaluate(TestChromosome individual, List<TestFitnessFunction> goals,
+                  List<TestFitnessFunction> remaining);
+}
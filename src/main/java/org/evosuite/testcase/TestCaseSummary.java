@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase;
+
+import org.evosuite.setup.TestCluster;
+import org.evosuite.testcase.statements.FunctionalMockStatement;
+import org.evosuite.testcase.statements.Statement;
+import org.evosuite.testcase.statements.reflection.PrivateFieldStatement;
+import org.evosuite.testcase.statements.reflection.PrivateMethodStatement;
+import org.evosuite.utils.generic.GenericClassFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * The structural properties of a {@link TestCase} that the archive looks at when deciding whether
+ * a test should replace another one: its length, and how many functional mocks and private
+ * accesses it uses. All of them are collected in a single pass over the statements.
+ * </p>
+ *
+ * <p>
+ * Summaries are immutable. A {@link TestChromosome} caches the summary of its test (see
+ * {@link TestChromosome#getSummary()}) and drops it whenever the test changes. Whether a mocked
+ * type could be generated instead depends on the test cluster, which changes during the search,
+ * so the summary only keeps the mocked types and asks the test cluster when the penalty is
+ * computed.
+ * </p>
+ */
+public final class TestCaseSummary {
+
+    private static final Class<?>[] NO_CLASSES = new Class<?>[0];
+
+    private final int length;
+
+    /**
+     * The target classes of the functional mocks, in statement order
+     */
+    private final Class<?>[] mockedClasses;
+
+    private final int numPrivateAccesses;
+
+    private TestCaseSummary(int length, Class<?>[] mockedClasses, int numPrivateAccesses) {
+        this.length = length;
+        this.mockedClasses = mockedClasses;
+        this.numPrivateAccesses = numPrivateAccesses;
+    }
+
+    /**
+     * Summarizes a test case.
+     *
+     * @param testCase a {@link TestCase} object.
+     * @return its summary
+     */
+    public static TestCaseSummary of(TestCase testCase) {
+        List<Class<?>> mockedClasses = null;
+        int privateAccesses = 0;
+
+        for (Statement statement : testCase) {
+            if (statement instanceof FunctionalMockStatement) {
+                if (mockedClasses == null) {
+                    mockedClasses = new ArrayList<>();
+                }
+                mockedClasses.add(((FunctionalMockStatement) statement).getTargetClass());
+            } else if (statement instanceof PrivateFieldStatement
+                    || statement instanceof PrivateMethodStatement) {
+                privateAccesses++;
+            }
+        }
+
+        return new TestCaseSummary(testCase.size(),
+                mockedClasses == null ? NO_CLASSES : mockedClasses.toArray(NO_CLASSES), privateAccesses);
+    }
+
+    /**
+     * @return the number of statements of the test
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public int getNumFunctionalMocks() {
+        return mockedClasses.length;
+    }
+
+    /**
+     * Asks the test cluster, as it is now, whether any of the functional mocks is of a type it
+     * could also generate. Stops at the first such type.
+     *
+     * @return whether a mocked type could be generated instead
+     */
+    public boolean hasFunctionalMocksForGenerableTypes() {
+        for (Class<?> mockedClass : mockedClasses) {
+            if (TestCluster.getInstance().hasGenerator(GenericClassFactory.get(mockedClass))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of statements accessing private fields or methods
+     */
+    public int getNumPrivateAccesses() {
+        return numPrivateAccesses;
+    }
+
+    /**
+     * Returns the penalty of the test: one point if it has functional mocks, one if any of them
+     * mocks a type that could be generated instead, and one if it accesses private fields or
+     * methods of the class under test.
+     *
+     * @return number of penalty points
+     */
+    public int getPenalty() {
+        int penalty = 0;
+        if (mockedClasses.length > 0) {
+            penalty++;
+        }
+        if (hasFunctionalMocksForGenerableTypes()) {
+            penalty++;
+        }
+        if (numPrivateAccesses > 0) {
+            penalty++;
+        }
+        return penalty;
+    }
+}
@@ -79,6 +79,11 @@ public final class TestChromosome extends AbstractTestChromosome<TestChromosome>
     private static final List<SecondaryObjective<TestChromosome>> secondaryObjectives =
             new ArrayList<>();
 
+    /**
+     * The structural summary of the test, computed on demand and dropped whenever the test changes
+     */
+    private transient TestCaseSummary summary = null;
+
 
     /**
      * {@inheritDoc}
@@ -102,6 +107,35 @@ public final class TestChromosome extends AbstractTestChromosome<TestChromosome>
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clearCachedResults() {
+        super.clearCachedResults();
+        this.summary = null;
+    }
+
+    /**
+     * Returns the structural summary of the test (length, functional mocks, private accesses),
+     * computing it if the test has changed since it was last asked for.
+     * <p>
+     * Code that edits the statements of the test must call {@code setChanged(true)} for the
+     * summary to be recomputed. Only edits that change the length of the test are detected
+     * without it; an edit that replaces a statement by another one would leave a stale summary.
+     *
+     * @return a {@link TestCaseSummary} object.
+     */
+    public TestCaseSummary getSummary() {
+        TestCaseSummary s = this.summary;
+        // the length check catches tests edited without marking the chromosome as changed
+        if (s == null || s.getLength() != test.size()) {
+            s = TestCaseSummary.of(test);
+            this.summary = s;
+        }
+        return s;
+    }
+
     @Override
     public TestChromosome self() {
         return this;
@@ -120,6 +154,8 @@ public final class TestChromosome extends AbstractTestChromosome<TestChromosome>
         c.setPreviousFitnessValues(getPreviousFitnessValues());
         c.copyCachedResults(this);
         c.setChanged(isChanged());
+        // the copy has the same statements
+        c.summary = summary;
         c.setLocalSearchApplied(hasLocalSearchBeenApplied());
         if (Properties.LOCAL_SEARCH_SELECTIVE) {
             for (TestMutationHistoryEntry mutation : mutationHistory) {
@@ -164,6 +200,64 @@ public final class TestChromosome extends AbstractTestChromosome<TestChromosome>
     }
 
 
+    /**
+     * Reuses the last execution result of {@code parent} (the chromosome this one was derived
+     * from) instead of executing this chromosome again. This is only done when executing this
+     * chromosome is bound to give the same result: the execution of the parent stopped at an
+     * exception, and both tests are the same up to and including the statement that threw it,
+     * so none of the statements that differ would be executed.
+     * <p>
+     * Falls back to a normal execution (returning false) if the parent timed out, wrote any system
+     * property, or if static fields are not reset between tests, as in all these cases the shared
+     * prefix is not guaranteed to behave the same way twice.
+     *
+     * @param parent the chromosome this chromosome was derived from
+     * @return true if the execution result of the parent was reused
+     */
+    public boolean reuseExecutionOf(TestChromosome parent) {
+        if (!Properties.INCREMENTAL_EXECUTION || !Properties.BREAK_ON_EXCEPTION
+                || !Properties.RESET_STATIC_FIELDS) {
+            return false;
+        }
+
+        final ExecutionResult parentResult = parent.getLastExecutionResult();
+        if (parentResult == null || parent.isChanged() || parentResult.noThrownExceptions()
+                || parentResult.hasTimeout() || parentResult.wasAnyPropertyWritten()) {
+            return false;
+        }
+
+        final int lastExecuted = parentResult.getFirstPositionOfThrownException();
+        if (lastExecuted >= parent.size() || getFirstChangedPosition(parent) <= lastExecuted) {
+            return false;
+        }
+
+        logger.debug("Reusing execution of parent, which stopped at position {}", lastExecuted);
+        ExecutionResult copy = parentResult.clone();
+        copy.setTest(test);
+        copy.setExecutedStatements(parentResult.getExecutedStatements());
+        this.lastExecutionResult = copy;
+        super.setChanged(false);
+        return true;
+    }
+
+    /**
+     * Returns the position of the first statement in which the test of this chromosome differs
+     * from the test of the given chromosome.
+     *
+     * @param other the chromosome to compare to
+     * @return the first differing position, or the length of the shorter test if one is a prefix
+     * of the other
+     */
+    private int getFirstChangedPosition(TestChromosome other) {
+        final int length = Math.min(test.size(), other.test.size());
+        for (int i = 0; i < length; i++) {
+            if (!test.getStatement(i).same(other.test.getStatement(i))) {
+                return i;
+            }
+        }
+        return length;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -625,7 +719,17 @@ public final class TestChromosome extends AbstractTestChromosome<TestChromosome>
         // make this deliberately not 0
         // because then ordering of results will be random
         // among tests of equal fitness
-        return test.toCode().compareTo((o.test.toCode()));
+        return getTieBreakKey().compareTo(o.getTieBreakKey());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tests of equal fitness are ordered by their code.
+     */
+    @Override
+    public String getTieBreakKey() {
+        return test.toCode();
     }
 
     /**
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import org.evosuite.Properties;
+import org.evosuite.testcase.TestCase;
+import org.evosuite.testcase.statements.ConstructorStatement;
+import org.evosuite.testcase.statements.MethodStatement;
+import org.evosuite.testcase.statements.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the timeout of a test from the execution times of previous tests. For each method
+ * (and constructor) of the class under test, the policy keeps the execution times of the last
+ * tests that called it. The timeout of a new test is the highest
+ * {@link Properties#ADAPTIVE_TIMEOUT_PERCENTILE} percentile among the methods it calls, plus
+ * {@link Properties#ADAPTIVE_TIMEOUT_MARGIN} milliseconds, and never more than
+ * {@link Properties#TIMEOUT}. Until enough executions of all called methods have been observed,
+ * the configured timeout is used.
+ * <p>
+ * A test that times out is recorded with the timeout it was given, a lower bound of its actual
+ * execution time. Without these censored samples the window would only see the runs that were
+ * fast enough to finish, and the learned timeout would be biased low.
+ * <p>
+ * A test that exceeds a learned timeout is reported as timed out at that deadline. It is only
+ * executed again (see {@link #getRetryTimeout(TestCase, int)}) while the timeout rests on few
+ * samples, and then with a bounded multiple of the learned timeout rather than
+ * {@link Properties#TIMEOUT}.
+ */
+public class AdaptiveTimeoutPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveTimeoutPolicy.class);
+
+    /**
+     * Number of recent execution times kept per method
+     */
+    private static final int WINDOW_SIZE = 128;
+
+    /**
+     * Number of execution times a method needs before its percentile is trusted
+     */
+    private static final int MIN_SAMPLES = 20;
+
+    /**
+     * Number of execution times of every called method from which a timeout is final, i.e., a
+     * test exceeding it is not executed again
+     */
+    private static final int CONFIDENT_SAMPLES = 4 * MIN_SAMPLES;
+
+    /**
+     * Factor applied to the learned timeout when a test is executed again
+     */
+    private static final int RETRY_FACTOR = 4;
+
+    /**
+     * Recent execution times of tests calling a method of the class under test, keyed by
+     * method name + descriptor
+     */
+    private final Map<String, LatencyWindow> latencies = new HashMap<>();
+
+    /**
+     * Returns the timeout to use for executing the given test.
+     *
+     * @param test the test about to be executed
+     * @return the timeout in milliseconds
+     */
+    public synchronized int getTimeout(TestCase test) {
+        if (!Properties.ADAPTIVE_TIMEOUT) {
+            return Properties.TIMEOUT;
+        }
+
+        Set<String> methods = getCalledMethods(test);
+        if (methods.isEmpty()) {
+            return Properties.TIMEOUT;
+        }
+
+        long percentile = 0L;
+        for (String method : methods) {
+            LatencyWindow window = latencies.get(method);
+            if (window == null || window.size() < MIN_SAMPLES) {
+                return Properties.TIMEOUT;
+            }
+            percentile = Math.max(percentile, window.getPercentile(Properties.ADAPTIVE_TIMEOUT_PERCENTILE));
+        }
+
+        long timeout = Math.min(percentile + Properties.ADAPTIVE_TIMEOUT_MARGIN, Properties.TIMEOUT);
+        logger.debug("Adaptive timeout of {} ms for test calling {}", timeout, methods);
+        return (int) timeout;
+    }
+
+    /**
+     * Decides whether a test that exceeded the given timeout is executed again before it is
+     * reported as timed out. This is only the case for a learned timeout that rests on fewer than
+     * {@link #CONFIDENT_SAMPLES} execution times for some called method, as such a timeout may
+     * still be too tight for tests that are merely slower than those observed so far.
+     *
+     * @param test    the test that timed out
+     * @param timeout the timeout it exceeded, in milliseconds
+     * @return the timeout for executing the test again, or -1 if its timeout is final
+     */
+    public synchronized int getRetryTimeout(TestCase test, int timeout) {
+        if (!Properties.ADAPTIVE_TIMEOUT || timeout >= Properties.TIMEOUT) {
+            return -1;
+        }
+        for (String method : getCalledMethods(test)) {
+            LatencyWindow window = latencies.get(method);
+            if (window == null || window.size() < CONFIDENT_SAMPLES) {
+                return (int) Math.min((long) timeout * RETRY_FACTOR, Properties.TIMEOUT);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records the execution time of a test that terminated normally (i.e., did not time out).
+     *
+     * @param test          the executed test
+     * @param executionTime the execution time in milliseconds
+     */
+    public synchronized void record(TestCase test, long executionTime) {
+        if (!Properties.ADAPTIVE_TIMEOUT) {
+            return;
+        }
+
+        for (String method : getCalledMethods(test)) {
+            latencies.computeIfAbsent(method, m -> new LatencyWindow()).add(executionTime);
+        }
+    }
+
+    /**
+     * Records a test that was stopped after {@code timeout} milliseconds. Its actual execution
+     * time is unknown but at least {@code timeout}, which is recorded in its place.
+     *
+     * @param test    the executed test
+     * @param timeout the timeout the test exceeded, in milliseconds
+     */
+    public synchronized void recordTimeout(TestCase test, long timeout) {
+        record(test, timeout);
+    }
+
+    /**
+     * Forgets all the observed execution times.
+     */
+    public synchronized void reset() {
+        latencies.clear();
+    }
+
+    private Set<String> getCalledMethods(TestCase test) {
+        Set<String> methods = new LinkedHashSet<>();
+        for (int i = 0; i < test.size(); i++) {
+            Statement s = test.getStatement(i);
+            if (s instanceof MethodStatement) {
+                MethodStatement ms = (MethodStatement) s;
+                if (ms.getDeclaringClassName().equals(Properties.TARGET_CLASS)) {
+                    methods.add(ms.getMethodName() + ms.getDescriptor());
+                }
+            } else if (s instanceof ConstructorStatement) {
+                ConstructorStatement cs = (ConstructorStatement) s;
+                if (cs.getDeclaringClassName().equals(Properties.TARGET_CLASS)) {
+                    methods.add("<init>" + cs.getDescriptor());
+                }
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Ring buffer of the most recent execution times, with a lazily recomputed percentile
+     */
+    private static class LatencyWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+
+        private int next = 0;
+
+        private int size = 0;
+
+        private long[] sorted = null;
+
+        void add(long executionTime) {
+            samples[next] = executionTime;
+            next = (next + 1) % WINDOW_SIZE;
+            size = Math.min(size + 1, WINDOW_SIZE);
+            sorted = null;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long getPercentile(double percentile) {
+            if (sorted == null) {
+                sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+            }
+            int index = (int) Math.ceil(percentile * size) - 1;
+            return sorted[Math.max(0, Math.min(index, size - 1))];
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Index of the branch distances recorded in the method calls of an
+ * {@link ExecutionTrace}, built in one pass over its method calls (see
+ * {@link ExecutionResult#getBranchDistanceIndex()}).
+ * </p>
+ *
+ * <p>
+ * Every executed method gets an id, and every (method id, instruction id)
+ * pair gets a slot; for each slot the index keeps the minimum and the sum of
+ * the true and false distances, and the number of times the branch was
+ * evaluated, in primitive arrays. Sums are accumulated in trace order, so
+ * they are exactly the values a scan of the method calls would produce.
+ * </p>
+ */
+public final class BranchDistanceIndex {
+
+    private static final long EMPTY = -1L;
+
+    /**
+     * Class name to method name to method id
+     */
+    private final Map<String, Map<String, Integer>> methodIds = new HashMap<>();
+
+    private int numMethods = 0;
+
+    /**
+     * Open addressing table from (method id, instruction id) to slot
+     */
+    private long[] keys;
+
+    private int[] slotOfKey;
+
+    private double[] minTrue;
+
+    private double[] minFalse;
+
+    private double[] sumTrue;
+
+    private double[] sumFalse;
+
+    private int[] hits;
+
+    private int size = 0;
+
+    private BranchDistanceIndex() {
+        this.keys = new long[64];
+        Arrays.fill(keys, EMPTY);
+        this.slotOfKey = new int[64];
+        allocate(32);
+    }
+
+    /**
+     * Builds the index of the given trace. The index does not refer to the
+     * trace.
+     *
+     * @param trace a {@link ExecutionTrace}
+     * @return the index
+     */
+    public static BranchDistanceIndex of(ExecutionTrace trace) {
+        BranchDistanceIndex index = new BranchDistanceIndex();
+        for (MethodCall call : trace.getMethodCalls()) {
+            Map<String, Integer> methods = index.methodIds.computeIfAbsent(call.className, k -> new HashMap<>());
+            Integer methodId = methods.get(call.methodName);
+            if (methodId == null) {
+                methodId = index.numMethods++;
+                methods.put(call.methodName, methodId);
+            }
+            final List<Integer> branches = call.branchTrace;
+            final List<Double> trueDistances = call.trueDistanceTrace;
+            final List<Double> falseDistances = call.falseDistanceTrace;
+            for (int i = 0; i < branches.size(); i++) {
+                index.add(methodId, branches.get(i), trueDistances.get(i), falseDistances.get(i));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param className  a class name
+     * @param methodName a method name, including its descriptor
+     * @return the id of the method, or -1 if the method was not executed
+     */
+    public int getMethodId(String className, String methodName) {
+        Map<String, Integer> methods = methodIds.get(className);
+        Integer id = methods == null ? null : methods.get(methodName);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param methodId      an id returned by {@link #getMethodId(String, String)}
+     * @param instructionId the instruction id of a branch
+     * @return the slot of the branch in the given method, or -1 if the branch
+     * was not evaluated in that method
+     */
+    public int getSlot(int methodId, int instructionId) {
+        if (methodId < 0) {
+            return -1;
+        }
+        long key = key(methodId, instructionId);
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return slotOfKey[i];
+            }
+            if (keys[i] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    public double getMinTrueDistance(int slot) {
+        return minTrue[slot];
+    }
+
+    public double getMinFalseDistance(int slot) {
+        return minFalse[slot];
+    }
+
+    public double getTrueDistanceSum(int slot) {
+        return sumTrue[slot];
+    }
+
+    public double getFalseDistanceSum(int slot) {
+        return sumFalse[slot];
+    }
+
+    public int getHits(int slot) {
+        return hits[slot];
+    }
+
+    /**
+     * @return the number of distinct (method, branch) pairs in the trace
+     */
+    public int size() {
+        return size;
+    }
+
+    private void add(int methodId, int instructionId, double trueDistance, double falseDistance) {
+        long key = key(methodId, instructionId);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) {
+            if (size == hits.length) {
+                allocate(size * 2);
+            }
+            keys[i] = key;
+            slotOfKey[i] = size;
+            minTrue[size] = trueDistance;
+            minFalse[size] = falseDistance;
+            sumTrue[size] = trueDistance;
+            sumFalse[size] = falseDistance;
+            hits[size] = 1;
+            size++;
+            // keep the load factor below 1/2
+            if (size * 2 > keys.length) {
+                rehash();
+            }
+        } else {
+            int slot = slotOfKey[i];
+            minTrue[slot] = Math.min(minTrue[slot], trueDistance);
+            minFalse[slot] = Math.min(minFalse[slot], falseDistance);
+            sumTrue[slot] += trueDistance;
+            sumFalse[slot] += falseDistance;
+            hits[slot]++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        minTrue = minTrue == null ? new double[capacity] : Arrays.copyOf(minTrue, capacity);
+        minFalse = minFalse == null ? new double[capacity] : Arrays.copyOf(minFalse, capacity);
+        sumTrue = sumTrue == null ? new double[capacity] : Arrays.copyOf(sumTrue, capacity);
+        sumFalse = sumFalse == null ? new double[capacity] : Arrays.copyOf(sumFalse, capacity);
+        hits = hits == null ? new int[capacity] : Arrays.copyOf(hits, capacity);
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slotOfKey;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        slotOfKey = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                slotOfKey[i] = oldSlots[j];
+            }
+        }
+    }
+
+    private static long key(int methodId, int instructionId) {
+        return ((long) methodId << 32) | (instructionId & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -47,9 +47,9 @@ public class ExecutionResult implements Cloneable {
     public Mutation mutation;
 
     /**
-     * Map statement number to raised exception
+     * Map statement number to raised exception; may be shared with clones (see {@link #clone()})
      */
-    protected Map<Integer, Throwable> exceptions = new HashMap<>();
+    private Map<Integer, Throwable> exceptions = new HashMap<>();
 
     /**
      * Record for each exception if it was explicitly thrown
@@ -62,6 +62,16 @@ public class ExecutionResult implements Cloneable {
      */
     protected ExecutionTrace trace;
 
+    /**
+     * Index of the branch distances of {@link #trace}, see {@link #getBranchDistanceIndex()}
+     */
+    private BranchDistanceIndex branchDistanceIndex = null;
+
+    /**
+     * The trace {@link #branchDistanceIndex} was built from
+     */
+    private ExecutionTrace branchDistanceIndexSource = null;
+
     /**
      * Duration of execution
      */
@@ -78,9 +88,9 @@ public class ExecutionResult implements Cloneable {
     protected boolean hasSecurityException = false;
 
     /**
-     * Set of System properties that were read during test execution
+     * Set of System properties that were read during test execution; may be shared with clones
      */
-    protected Set<String> readProperties;
+    private Set<String> readProperties;
 
     /**
      * Keep track of whether any System property was written
@@ -89,6 +99,19 @@ public class ExecutionResult implements Cloneable {
 
     private List<FeatureVector> featureVectors = new ArrayList<>(1);
 
+    /*
+     * Parts of the result that may be shared with clones (see clone()). A shared part is
+     * copied by whichever side is about to modify it, or to hand it out for modification.
+     */
+    private static final int EXCEPTIONS = 1;
+    private static final int OUTPUT_TRACES = 1 << 1;
+    private static final int INPUT_GOALS = 1 << 2;
+    private static final int OUTPUT_GOALS = 1 << 3;
+    private static final int FEATURE_VECTORS = 1 << 4;
+    private static final int ALL_PARTS = (1 << 5) - 1;
+
+    private int sharedParts = 0;
+
     /**
      * @return the executedStatements
      */
@@ -104,9 +127,9 @@ public class ExecutionResult implements Cloneable {
     }
 
     /**
-     * Output traces produced by observers
+     * Output traces produced by observers; may be shared with clones
      */
-    protected final Map<Class<?>, OutputTrace<?>> traces = new HashMap<>();
+    private Map<Class<?>, OutputTrace<?>> traces = new HashMap<>();
 
     private Map<Integer, Set<InputCoverageGoal>> inputGoals = new LinkedHashMap<>();
 
@@ -135,6 +158,9 @@ public class ExecutionResult implements Cloneable {
      *             sequence position toward thrown exception
      */
     public void setThrownExceptions(Map<Integer, Throwable> data) {
+        if (unshare(EXCEPTIONS)) {
+            exceptions = new HashMap<>();
+        }
         exceptions.clear();
         data.forEach(this::reportNewThrownException);
     }
@@ -162,6 +188,9 @@ public class ExecutionResult implements Cloneable {
      * @param t        a {@link Throwable} object.
      */
     public void reportNewThrownException(Integer position, Throwable t) {
+        if (unshare(EXCEPTIONS)) {
+            exceptions = new HashMap<>(exceptions);
+        }
         exceptions.put(position, t);
     }
 
@@ -173,7 +202,7 @@ public class ExecutionResult implements Cloneable {
      * @return a {@link Set} object.
      */
     public Set<Integer> getPositionsWhereExceptionsWereThrown() {
-        return exceptions.keySet();
+        return Collections.unmodifiableSet(exceptions.keySet());
     }
 
     /**
@@ -184,7 +213,7 @@ public class ExecutionResult implements Cloneable {
      * @return a {@link Collection} object.
      */
     public Collection<Throwable> getAllThrownExceptions() {
-        return exceptions.values();
+        return Collections.unmodifiableCollection(exceptions.values());
     }
 
     /**
@@ -240,6 +269,9 @@ public class ExecutionResult implements Cloneable {
      */
     @Deprecated
     public Map<Integer, Throwable> exposeExceptionMapping() {
+        if (unshare(EXCEPTIONS)) {
+            exceptions = new HashMap<>(exceptions);
+        }
         return exceptions;
     }
 
@@ -281,6 +313,24 @@ public class ExecutionResult implements Cloneable {
             throw new IllegalArgumentException("Trace cannot be null");
         }
         this.trace = trace;
+        this.branchDistanceIndex = null;
+        this.branchDistanceIndexSource = null;
+    }
+
+    /**
+     * Accessor to the index of the branch distances of the execution trace, which is built on
+     * first use in one pass over the method calls, rebuilt whenever the trace is replaced, and
+     * shared with clones. Only the index, with one slot per distinct branch of each executed
+     * method, stays on the result next to the trace.
+     *
+     * @return a {@link BranchDistanceIndex} object.
+     */
+    public BranchDistanceIndex getBranchDistanceIndex() {
+        if (branchDistanceIndex == null || branchDistanceIndexSource != trace) {
+            branchDistanceIndex = BranchDistanceIndex.of(trace);
+            branchDistanceIndexSource = trace;
+        }
+        return branchDistanceIndex;
     }
 
     /**
@@ -290,11 +340,14 @@ public class ExecutionResult implements Cloneable {
      * @param clazz a {@link Class} object.
      */
     public void setTrace(OutputTrace<?> trace, Class<?> clazz) {
+        unshareOutputTraces();
         traces.put(clazz, trace);
     }
 
     /**
-     * Accessor for output trace produced by an observer of a particular class
+     * Accessor for output trace produced by an observer of a particular class. The trace may be
+     * shared with clones of this result, and must not be modified: a new trace is stored with
+     * {@link #setTrace(OutputTrace, Class)}.
      *
      * @param clazz a {@link Class} object.
      * @return a {@link org.evosuite.assertion.OutputTrace} object.
@@ -304,12 +357,41 @@ public class ExecutionResult implements Cloneable {
     }
 
     /**
-     * Accessor for the output traces produced by observers
+     * Accessor for the output traces produced by observers, which must not be modified (see
+     * {@link #getTrace(Class)})
      *
      * @return a {@link Collection} object.
      */
     public Collection<OutputTrace<?>> getTraces() {
-        return traces.values();
+        return Collections.unmodifiableCollection(traces.values());
+    }
+
+    /**
+     * Output traces are mutable, hence a shared map of traces is deep-copied before it is
+     * written to
+     */
+    private void unshareOutputTraces() {
+        if (unshare(OUTPUT_TRACES)) {
+            Map<Class<?>, OutputTrace<?>> copy = new HashMap<>();
+            for (Map.Entry<Class<?>, OutputTrace<?>> entry : traces.entrySet()) {
+                copy.put(entry.getKey(), entry.getValue().clone());
+            }
+            traces = copy;
+        }
+    }
+
+    /**
+     * Marks a part of this result as no longer shared
+     *
+     * @param part one of the part constants
+     * @return true if the part was shared, i.e., the caller has to copy it before writing to it
+     */
+    private boolean unshare(int part) {
+        if ((sharedParts & part) == 0) {
+            return false;
+        }
+        sharedParts &= ~part;
+        return true;
     }
 
     /**
@@ -404,25 +486,31 @@ public class ExecutionResult implements Cloneable {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The clone shares the exceptions, output traces, input/output goals, read properties and
+     * feature vectors with this result; each side copies a part only when it is about to modify
+     * it. The execution trace is cloned lazily, which copies it on its first modification as well.
      */
     @Override
     public ExecutionResult clone() {
         ExecutionResult copy = new ExecutionResult(test, mutation);
-        copy.exceptions.putAll(exceptions);
+        copy.exceptions = exceptions;
         copy.trace = trace.lazyClone();
+        if (branchDistanceIndex != null && branchDistanceIndexSource == trace) {
+            // the index is immutable and the cloned trace has the same calls
+            copy.branchDistanceIndex = branchDistanceIndex;
+            copy.branchDistanceIndexSource = copy.trace;
+        }
         copy.explicitExceptions.putAll(explicitExceptions);
         copy.executionTime = executionTime;
-        copy.inputGoals = new LinkedHashMap<>(inputGoals);
-        copy.outputGoals = new LinkedHashMap<>(outputGoals);
-        for (Class<?> clazz : traces.keySet()) {
-            copy.traces.put(clazz, traces.get(clazz).clone());
-        }
-        if (readProperties != null) {
-            copy.readProperties = new LinkedHashSet<>();
-            copy.readProperties.addAll(readProperties);
-        }
+        copy.inputGoals = inputGoals;
+        copy.outputGoals = outputGoals;
+        copy.traces = traces;
+        copy.readProperties = readProperties;
         copy.wasAnyPropertyWritten = wasAnyPropertyWritten;
-        copy.featureVectors = new ArrayList<>(this.featureVectors);
+        copy.featureVectors = featureVectors;
+        this.sharedParts = ALL_PARTS;
+        copy.sharedParts = ALL_PARTS;
 
         return copy;
     }
@@ -435,8 +523,12 @@ public class ExecutionResult implements Cloneable {
         return "Trace:" + trace;
     }
 
+    /**
+     * @return the System properties read during test execution, as a read-only set, or null if
+     * they were not recorded
+     */
     public Set<String> getReadProperties() {
-        return readProperties;
+        return readProperties == null ? null : Collections.unmodifiableSet(readProperties);
     }
 
     public void setReadProperties(Set<String> readProperties) {
@@ -456,18 +548,24 @@ public class ExecutionResult implements Cloneable {
     }
 
     public void setInputGoals(Map<Integer, Set<InputCoverageGoal>> coveredGoals) {
-        inputGoals.putAll(coveredGoals);
+        getInputGoals().putAll(coveredGoals);
     }
 
     public void setOutputGoals(Map<Integer, Set<OutputCoverageGoal>> coveredGoals) {
-        outputGoals.putAll(coveredGoals);
+        getOutputGoals().putAll(coveredGoals);
     }
 
     public Map<Integer, Set<InputCoverageGoal>> getInputGoals() {
+        if (unshare(INPUT_GOALS)) {
+            inputGoals = new LinkedHashMap<>(inputGoals);
+        }
         return inputGoals;
     }
 
     public Map<Integer, Set<OutputCoverageGoal>> getOutputGoals() {
+        if (unshare(OUTPUT_GOALS)) {
+            outputGoals = new LinkedHashMap<>(outputGoals);
+        }
         return outputGoals;
     }
 
@@ -477,6 +575,9 @@ public class ExecutionResult implements Cloneable {
      * @param vector The feature vector.
      */
     public void addFeatureVector(FeatureVector vector) {
+        if (unshare(FEATURE_VECTORS)) {
+            this.featureVectors = new ArrayList<>(this.featureVectors);
+        }
         this.featureVectors.add(vector);
     }
 
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import org.evosuite.Properties;
+import org.evosuite.testcase.TestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of {@link ExecutionResult}s, keyed by the structure of the executed
+ * {@link TestCase} (i.e., two tests with equal statements share the same entry). When full, the
+ * least recently used entry is evicted.
+ * <p>
+ * Results are only cached if executing the same test again is bound to give the same result,
+ * which is not the case if static fields are not reset between tests, or if the execution timed
+ * out, read or wrote system properties, or raised a security exception.
+ */
+public class ExecutionResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionResultCache.class);
+
+    private final int capacity;
+
+    /**
+     * Cached results, in access order
+     */
+    private final LinkedHashMap<TestCase, ExecutionResult> results;
+
+    private long hits = 0L;
+
+    private long misses = 0L;
+
+    private long bypasses = 0L;
+
+    /**
+     * @param capacity the maximum number of cached results, 0 to disable the cache
+     */
+    public ExecutionResultCache(int capacity) {
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<TestCase, ExecutionResult>(16, 0.75f, true) {
+            private static final long serialVersionUID = 4398734651227409122L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TestCase, ExecutionResult> eldest) {
+                return size() > ExecutionResultCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @return true if results are looked up and stored, false otherwise
+     */
+    public boolean isEnabled() {
+        return capacity > 0 && Properties.RESET_STATIC_FIELDS;
+    }
+
+    /**
+     * Returns a copy of the cached result of a test with the same structure of {@code test}, bound
+     * to {@code test}.
+     *
+     * @param test the test about to be executed
+     * @return the cached result, or {@code null} if there is none
+     */
+    public synchronized ExecutionResult get(TestCase test) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        ExecutionResult cached = results.get(test);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        ExecutionResult copy = cached.clone();
+        copy.setTest(test);
+        copy.setExecutedStatements(cached.getExecutedStatements());
+        return copy;
+    }
+
+    /**
+     * Stores the result of executing {@code test}, unless executing it again could give a
+     * different result.
+     *
+     * @param test   the executed test
+     * @param result the result of the execution
+     */
+    public synchronized void put(TestCase test, ExecutionResult result) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        if (!isCacheable(result)) {
+            bypasses++;
+            return;
+        }
+
+        // the key has to be a copy, as the test of the chromosome will be mutated later on
+        TestCase key = test.clone();
+        ExecutionResult value = result.clone();
+        value.setTest(key);
+        value.setExecutedStatements(result.getExecutedStatements());
+        results.put(key, value);
+    }
+
+    private boolean isCacheable(ExecutionResult result) {
+        return !result.hasTimeout()
+                && !result.hasSecurityException()
+                && !result.wasAnyPropertyWritten()
+                && (result.getReadProperties() == null || result.getReadProperties().isEmpty());
+    }
+
+    /**
+     * Removes all cached results, e.g. because the set of execution observers changed.
+     */
+    public synchronized void clear() {
+        if (!results.isEmpty()) {
+            logger.debug("Clearing {} cached execution results", results.size());
+        }
+        results.clear();
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of results that were not cached because re-executing the test could give
+     * a different result
+     */
+    public synchronized long getBypasses() {
+        return bypasses;
+    }
+
+    /**
+     * @return the ratio of lookups answered from the cache
+     */
+    public synchronized double getHitRate() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ExecutionResultCache[size=" + results.size() + ", hits=" + hits + ", misses=" + misses
+                + ", bypasses=" + bypasses + "]";
+    }
+}
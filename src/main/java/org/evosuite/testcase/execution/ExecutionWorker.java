@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import org.evosuite.TestGenerationContext;
+import org.evosuite.runtime.sandbox.PermissionStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ * The execution worker of the {@link TestCaseExecutor}. It owns the executor
+ * running the tests, the thread group of the SUT threads they spawn, and the
+ * bookkeeping of threads that survived a timeout. Tests are run on it one at
+ * a time, but the stalled threads may be counted from any thread.
+ * </p>
+ *
+ * <p>
+ * WARNING: never give "privileged" rights in MSecurityManager to any of the
+ * threads generated here
+ * </p>
+ */
+class ExecutionWorker implements ThreadFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionWorker.class);
+
+    private final TestCaseExecutor owner;
+
+    private ExecutorService executor;
+
+    private Thread currentThread = null;
+
+    private ThreadGroup threadGroup = null;
+
+    private final Set<Thread> stalledThreads = ConcurrentHashMap.newKeySet();
+
+    ExecutionWorker(TestCaseExecutor owner) {
+        this.owner = owner;
+        this.executor = Executors.newSingleThreadExecutor(this);
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    Thread getCurrentThread() {
+        return currentThread;
+    }
+
+    ThreadGroup getThreadGroup() {
+        return threadGroup;
+    }
+
+    /**
+     * Replaces the executor of this worker with a fresh one. The thread of the
+     * old executor (if still alive) will be recorded as stalled as soon as the
+     * new executor spawns its first thread.
+     */
+    void replaceExecutor() {
+        executor = Executors.newSingleThreadExecutor(this);
+    }
+
+    /**
+     * Shuts down the executor of this worker, if any.
+     */
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Makes sure this worker has an executor, creating one if it was shut down.
+     */
+    void init() {
+        if (executor == null) {
+            logger.info("TestCaseExecutor instance is non-null, but its actual executor is null");
+        }
+        executor = Executors.newSingleThreadExecutor(this);
+    }
+
+    /**
+     * Binds the {@link ExecutionTracer} to the thread of this worker, as the
+     * tracer only records events raised by the thread it was told about.
+     */
+    void bindTracer() {
+        if (currentThread != null) {
+            ExecutionTracer.setThread(currentThread);
+        }
+    }
+
+    /**
+     * Checks whether the thread of this worker is currently inside a static
+     * initializer (or class loading), which must not be interrupted.
+     *
+     * @return a boolean.
+     */
+    boolean isInStaticInit() {
+        for (StackTraceElement elem : currentThread.getStackTrace()) {
+            if (elem.getMethodName().equals("<clinit>"))
+                return true;
+            if (elem.getMethodName().equals("loadClass") && elem.getClassName()
+                    .equals(org.evosuite.instrumentation.InstrumentingClassLoader.class.getCanonicalName()))
+                return true;
+            // CFontManager is responsible for loading fonts
+            // which can take seconds
+            if (elem.getClassName().equals("sun.font.CFontManager"))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * <p>
+     * getNumStalledThreads
+     * </p>
+     *
+     * @return a int.
+     */
+    int getNumStalledThreads() {
+        stalledThreads.removeIf(t -> !t.isAlive());
+        return stalledThreads.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Thread newThread(Runnable r) {
+        if (currentThread != null && currentThread.isAlive()) {
+            currentThread.setPriority(Thread.MIN_PRIORITY);
+            stalledThreads.add(currentThread);
+            logger.info("Current number of stalled threads: " + getNumStalledThreads());
+        } else {
+            logger.info("No stalled threads");
+        }
+
+        if (threadGroup != null) {
+            PermissionStatistics.getInstance().countThreads(threadGroup.activeCount());
+        }
+        threadGroup = new ThreadGroup(TestCaseExecutor.TEST_EXECUTION_THREAD_GROUP);
+        currentThread = new Thread(threadGroup, r);
+        currentThread.setName(TestCaseExecutor.TEST_EXECUTION_THREAD + "_" + owner.nextThreadId());
+        currentThread.setContextClassLoader(TestGenerationContext.getInstance().getClassLoaderForSUT());
+        ExecutionTracer.setThread(currentThread);
+        return currentThread;
+    }
+}
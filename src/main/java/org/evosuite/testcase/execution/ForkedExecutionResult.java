@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import org.evosuite.TestGenerationContext;
+import org.evosuite.testcase.TestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Compact, serializable summary of an {@link ExecutionResult}, as sent back by
+ * a forked execution worker (see {@link ForkedExecutionServer}).
+ * </p>
+ *
+ * <p>
+ * Only the parts of the result and of the {@link ExecutionTrace} needed to
+ * compute branch and method coverage are kept: exceptions by position,
+ * executed statements, execution time, branch distances and execution
+ * counts, covered methods, and the method calls with their branch, distance,
+ * def-use counter and line traces (approach levels and the
+ * {@link BranchDistanceIndex} are computed from the calls). Exceptions are
+ * serialized one by one, so that a single exception that cannot be
+ * serialized does not make the whole result unusable.
+ * </p>
+ *
+ * <p>
+ * The method calls are sent in columns: one entry per call for its names,
+ * ids and depth, and the traces of all calls concatenated into shared
+ * primitive arrays, with the offset of the first entry of each call. Names
+ * are sent as strings, as ids interned in the worker mean nothing in the
+ * searcher.
+ * </p>
+ *
+ * <p>
+ * A test that exceeds its timeout in the worker is summarized like any
+ * other, so the searcher gets the partial trace recorded up to the timeout,
+ * as with in-process execution.
+ * </p>
+ */
+class ForkedExecutionResult implements Serializable {
+
+    private static final long serialVersionUID = 4265823960136488734L;
+
+    private static final Logger logger = LoggerFactory.getLogger(ForkedExecutionResult.class);
+
+    private final Map<Integer, byte[]> exceptions = new LinkedHashMap<>();
+
+    private final Map<Integer, String> exceptionClasses = new LinkedHashMap<>();
+
+    private final Map<Integer, Boolean> explicitExceptions = new HashMap<>();
+
+    private int executedStatements;
+
+    private long executionTime;
+
+    private boolean hasSecurityException;
+
+    private boolean wasAnyPropertyWritten;
+
+    private Set<String> readProperties;
+
+    private final Map<Integer, Double> trueDistances = new HashMap<>();
+
+    private final Map<Integer, Double> falseDistances = new HashMap<>();
+
+    private final Map<Integer, Integer> predicateExecutionCount = new HashMap<>();
+
+    private final Map<String, Integer> methodExecutionCount = new HashMap<>();
+
+    // one entry per method call
+    private String[] callClassNames;
+    private String[] callMethodNames;
+    private int[] callMethodIds;
+    private int[] callingObjectIds;
+    private int[] callDepths;
+    private int[] callBranchStart;
+    private int[] callLineStart;
+
+    // one entry per branch evaluation, of all calls
+    private int[] branchTrace;
+    private double[] trueDistanceTrace;
+    private double[] falseDistanceTrace;
+    private int[] defuseCounterTrace;
+
+    // one entry per executed line, of all calls
+    private int[] lineTrace;
+
+    private boolean timeout;
+
+    /**
+     * Number of threads of the worker that survived a timeout, used by the
+     * searcher to decide whether the worker has to be recycled
+     */
+    private int stalledThreads;
+
+    private ForkedExecutionResult() {
+    }
+
+    /**
+     * Summarises the result of an execution in the forked worker
+     *
+     * @param result         the {@link ExecutionResult} of the execution
+     * @param stalledThreads the number of stalled threads of the worker
+     * @return the summary to send to the searcher
+     */
+    static ForkedExecutionResult of(ExecutionResult result, int stalledThreads) {
+        ForkedExecutionResult summary = new ForkedExecutionResult();
+        for (Map.Entry<Integer, Throwable> entry : result.exposeExceptionMapping().entrySet()) {
+            Throwable t = entry.getValue();
+            summary.exceptionClasses.put(entry.getKey(), t.getClass().getName());
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(t);
+                }
+                summary.exceptions.put(entry.getKey(), bytes.toByteArray());
+            } catch (IOException e) {
+                logger.debug("Cannot serialize exception {}: {}", t.getClass().getName(), e.getMessage());
+            }
+        }
+        summary.explicitExceptions.putAll(result.explicitExceptions);
+        summary.executedStatements = result.getExecutedStatements();
+        summary.executionTime = result.getExecutionTime();
+        summary.hasSecurityException = result.hasSecurityException();
+        summary.wasAnyPropertyWritten = result.wasAnyPropertyWritten();
+        if (result.getReadProperties() != null) {
+            summary.readProperties = new HashSet<>(result.getReadProperties());
+        }
+
+        ExecutionTrace trace = result.getTrace();
+        if (trace != null) {
+            summary.trueDistances.putAll(trace.getTrueDistances());
+            summary.falseDistances.putAll(trace.getFalseDistances());
+            summary.predicateExecutionCount.putAll(trace.getPredicateExecutionCount());
+            summary.methodExecutionCount.putAll(trace.getMethodExecutionCount());
+            summary.encodeCalls(trace.getMethodCalls());
+        } else {
+            summary.encodeCalls(new ArrayList<>());
+        }
+        summary.timeout = result.hasTimeout();
+        summary.stalledThreads = stalledThreads;
+        return summary;
+    }
+
+    /**
+     * Flattens the method calls of a trace into the call columns
+     */
+    private void encodeCalls(List<MethodCall> calls) {
+        int numCalls = calls.size();
+        callClassNames = new String[numCalls];
+        callMethodNames = new String[numCalls];
+        callMethodIds = new int[numCalls];
+        callingObjectIds = new int[numCalls];
+        callDepths = new int[numCalls];
+        callBranchStart = new int[numCalls + 1];
+        callLineStart = new int[numCalls + 1];
+
+        int numBranches = 0;
+        int numLines = 0;
+        for (MethodCall call : calls) {
+            numBranches += call.branchTrace.size();
+            numLines += call.lineTrace.size();
+        }
+        branchTrace = new int[numBranches];
+        trueDistanceTrace = new double[numBranches];
+        falseDistanceTrace = new double[numBranches];
+        defuseCounterTrace = new int[numBranches];
+        lineTrace = new int[numLines];
+
+        int branch = 0;
+        int line = 0;
+        for (int i = 0; i < numCalls; i++) {
+            MethodCall call = calls.get(i);
+            callClassNames[i] = call.className;
+            callMethodNames[i] = call.methodName;
+            callMethodIds[i] = call.methodId;
+            callingObjectIds[i] = call.callingObjectID;
+            callDepths[i] = call.callDepth;
+            callBranchStart[i] = branch;
+            callLineStart[i] = line;
+            for (int j = 0; j < call.branchTrace.size(); j++, branch++) {
+                branchTrace[branch] = call.branchTrace.get(j);
+                trueDistanceTrace[branch] = call.trueDistanceTrace.get(j);
+                falseDistanceTrace[branch] = call.falseDistanceTrace.get(j);
+                defuseCounterTrace[branch] = j < call.defuseCounterTrace.size() ? call.defuseCounterTrace.get(j) : 0;
+            }
+            for (int j = 0; j < call.lineTrace.size(); j++, line++) {
+                lineTrace[line] = call.lineTrace.get(j);
+            }
+        }
+        callBranchStart[numCalls] = branch;
+        callLineStart[numCalls] = line;
+    }
+
+    /**
+     * Rebuilds the method calls out of the call columns
+     */
+    private List<MethodCall> decodeCalls() {
+        List<MethodCall> calls = new ArrayList<>(callClassNames.length);
+        for (int i = 0; i < callClassNames.length; i++) {
+            MethodCall call = new MethodCall(callClassNames[i], callMethodNames[i], callMethodIds[i],
+                    callingObjectIds[i], callDepths[i]);
+            for (int j = callBranchStart[i]; j < callBranchStart[i + 1]; j++) {
+                call.branchTrace.add(branchTrace[j]);
+                call.trueDistanceTrace.add(trueDistanceTrace[j]);
+                call.falseDistanceTrace.add(falseDistanceTrace[j]);
+                call.defuseCounterTrace.add(defuseCounterTrace[j]);
+            }
+            for (int j = callLineStart[i]; j < callLineStart[i + 1]; j++) {
+                call.lineTrace.add(lineTrace[j]);
+            }
+            calls.add(call);
+        }
+        return calls;
+    }
+
+    int getStalledThreads() {
+        return stalledThreads;
+    }
+
+    /**
+     * @return whether the test exceeded its timeout in the worker
+     */
+    boolean hasTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Rebuilds an {@link ExecutionResult} for the given test out of this
+     * summary
+     *
+     * @param test the test that was executed
+     * @return a {@link ExecutionResult} object.
+     */
+    ExecutionResult toExecutionResult(TestCase test) {
+        ExecutionResult result = new ExecutionResult(test, null);
+
+        Map<Integer, Throwable> thrown = new LinkedHashMap<>();
+        for (Map.Entry<Integer, String> entry : exceptionClasses.entrySet()) {
+            thrown.put(entry.getKey(), readException(entry.getValue(), exceptions.get(entry.getKey())));
+        }
+        result.setThrownExceptions(thrown);
+        result.explicitExceptions.putAll(explicitExceptions);
+        result.setExecutedStatements(executedStatements);
+        result.setExecutionTime(executionTime);
+        result.setSecurityException(hasSecurityException);
+        result.setWasAnyPropertyWritten(wasAnyPropertyWritten);
+        result.setReadProperties(readProperties);
+
+        ExecutionTraceImpl trace = new ExecutionTraceImpl();
+        trace.trueDistances.putAll(trueDistances);
+        trace.falseDistances.putAll(falseDistances);
+        trace.coveredPredicates.putAll(predicateExecutionCount);
+        trace.coveredMethods.putAll(methodExecutionCount);
+        for (Map.Entry<Integer, Double> entry : trueDistances.entrySet()) {
+            if (entry.getValue() == 0.0) {
+                trace.coveredTrue.put(entry.getKey(), predicateExecutionCount.getOrDefault(entry.getKey(), 1));
+            }
+        }
+        for (Map.Entry<Integer, Double> entry : falseDistances.entrySet()) {
+            if (entry.getValue() == 0.0) {
+                trace.coveredFalse.put(entry.getKey(), predicateExecutionCount.getOrDefault(entry.getKey(), 1));
+            }
+        }
+        trace.finishedCalls.addAll(decodeCalls());
+        result.setTrace(trace);
+        return result;
+    }
+
+    /**
+     * Deserializes an exception thrown in the forked worker, resolving its
+     * class with the class loader of the SUT. If that is not possible, a
+     * {@link ForkedException} carrying the name of the original class is
+     * used instead.
+     */
+    private static Throwable readException(String className, byte[] data) {
+        if (className.equals(TestCaseExecutor.TimeoutExceeded.class.getName())) {
+            // ExecutionResult#hasTimeout() looks for this very type
+            return new TestCaseExecutor.TimeoutExceeded();
+        }
+        if (data != null) {
+            try (ObjectInputStream in = new SUTObjectInputStream(new ByteArrayInputStream(data))) {
+                return (Throwable) in.readObject();
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                logger.debug("Cannot deserialize exception {}: {}", className, e.getMessage());
+            }
+        }
+        return new ForkedException(className);
+    }
+
+    /**
+     * Stand-in for an exception thrown in a forked worker that could not be
+     * transferred to the searcher
+     */
+    static class ForkedException extends RuntimeException {
+
+        private static final long serialVersionUID = -2203594810937482563L;
+
+        private final String originalClassName;
+
+        ForkedException(String originalClassName) {
+            super("Exception of type " + originalClassName + " thrown in forked execution worker");
+            this.originalClassName = originalClassName;
+        }
+
+        public String getOriginalClassName() {
+            return originalClassName;
+        }
+    }
+
+    /**
+     * Object stream resolving classes with the class loader of the SUT first,
+     * as exceptions may be of instrumented SUT types
+     */
+    static class SUTObjectInputStream extends ObjectInputStream {
+
+        SUTObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false,
+                        TestGenerationContext.getInstance().getClassLoaderForSUT());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
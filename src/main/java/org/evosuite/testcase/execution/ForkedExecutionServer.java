@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import org.evosuite.Properties;
+import org.evosuite.classpath.ClassPathHandler;
+import org.evosuite.runtime.sandbox.Sandbox;
+import org.evosuite.setup.DependencyAnalysis;
+import org.evosuite.testcase.TestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Entry point of a forked execution worker (see
+ * {@link Properties#FORKED_EXECUTION_WORKERS}).
+ * </p>
+ *
+ * <p>
+ * The worker is started by {@link ForkedExecutionWorker} with the path of a
+ * properties file holding the configuration of the searcher. It instruments
+ * the class under test the same way the searcher does, and then loops:
+ * it reads a {@link TestCase} and its timeout from its standard input,
+ * executes it with an in-process {@link TestCaseExecutor}, and writes a
+ * {@link ForkedExecutionResult} to its standard output. Anything the SUT
+ * prints on the standard output is redirected to the standard error, so it
+ * cannot corrupt the protocol.
+ * </p>
+ */
+public class ForkedExecutionServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForkedExecutionServer.class);
+
+    /**
+     * Written by the worker once it is ready to execute tests
+     */
+    static final int READY = 0xE5E5;
+
+    public static void main(String[] args) {
+        OutputStream channel = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out));
+        System.setOut(System.err);
+
+        if (args.length != 1) {
+            logger.error("Usage: ForkedExecutionServer <properties file>");
+            System.exit(1);
+        }
+
+        try {
+            setup(args[0]);
+            serve(new ObjectInputStream(new BufferedInputStream(System.in)), new ObjectOutputStream(channel));
+        } catch (EOFException e) {
+            // the searcher closed the pipe, nothing left to do
+            logger.debug("Forked execution worker shutting down");
+        } catch (Throwable t) {
+            logger.error("Forked execution worker failed: " + t.getMessage(), t);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Loads the configuration of the searcher and instruments the class under
+     * test, so that branch ids are assigned as in the searcher
+     */
+    private static void setup(String propertiesFile) throws ClassNotFoundException {
+        Properties.getInstance().loadProperties(propertiesFile, true);
+        // a worker never forks workers on its own
+        Properties.FORKED_EXECUTION_WORKERS = 0;
+
+        ClassPathHandler.getInstance().changeTargetClassPath(Properties.CP.split(File.pathSeparator));
+        DependencyAnalysis.analyzeClass(Properties.TARGET_CLASS,
+                Arrays.asList(ClassPathHandler.getInstance().getClassPathElementsForTargetProject()));
+
+        if (Properties.SANDBOX) {
+            Sandbox.initializeSecurityManagerForSUT();
+        }
+        TestCaseExecutor.initExecutor();
+    }
+
+    private static void serve(ObjectInputStream in, ObjectOutputStream out) throws IOException, ClassNotFoundException {
+        out.writeInt(READY);
+        out.flush();
+
+        TestCaseExecutor executor = TestCaseExecutor.getInstance();
+        while (true) {
+            TestCase test = (TestCase) in.readObject();
+            int timeout = in.readInt();
+
+            ExecutionResult result = executor.execute(test, timeout);
+            out.writeObject(ForkedExecutionResult.of(result, executor.getNumStalledThreads()));
+            // the summaries are independent, do not keep back-references
+            out.reset();
+            out.flush();
+        }
+    }
+}
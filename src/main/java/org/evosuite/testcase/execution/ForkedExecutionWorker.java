@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import org.evosuite.Properties;
+import org.evosuite.testcase.TestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Searcher side of a forked execution worker: a separate JVM, started on
+ * the local machine, running {@link ForkedExecutionServer}. Tests are sent
+ * to it serialized over its standard input, and a
+ * {@link ForkedExecutionResult} is read back from its standard output.
+ * </p>
+ *
+ * <p>
+ * If the worker does not answer within the timeout of the test plus
+ * {@link #SHUTDOWN_ROUNDS} times {@link Properties#SHUTDOWN_TIMEOUT} (the
+ * worker itself waits for the threads of a test that timed out for up to
+ * three rounds before it reports the partial trace), or reports threads that
+ * survived a timeout, its process is destroyed and a new one is started for the next
+ * test. Threads of the SUT therefore never leak into the search JVM.
+ * </p>
+ */
+class ForkedExecutionWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForkedExecutionWorker.class);
+
+    /**
+     * Maximum time to wait for a new worker to instrument the SUT and be ready
+     */
+    private static final long STARTUP_TIMEOUT = 60_000;
+
+    /**
+     * Number of {@link Properties#SHUTDOWN_TIMEOUT}s the searcher waits past
+     * the timeout of a test: three for the worker to stop the test, and one
+     * to send the result
+     */
+    private static final int SHUTDOWN_ROUNDS = 4;
+
+    private final int id;
+
+    private final File propertiesFile;
+
+    private Process process = null;
+
+    private ObjectOutputStream toWorker = null;
+
+    private ObjectInputStream fromWorker = null;
+
+    /**
+     * Reads the answers of the worker, so that the searcher can wait for them
+     * with a timeout
+     */
+    private final ExecutorService reader;
+
+    private int restarts = 0;
+
+    ForkedExecutionWorker(int id, File propertiesFile) {
+        this.id = id;
+        this.propertiesFile = propertiesFile;
+        this.reader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "FORKED_EXECUTION_READER_" + id);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Executes a test in the worker process, starting it if needed
+     *
+     * @param tc      the test to execute
+     * @param timeout the timeout of the test, in milliseconds
+     * @return the summary of the execution, or {@code null} if the worker
+     * did not answer in time and had to be destroyed
+     * @throws IOException if the worker cannot be started or has died
+     */
+    ForkedExecutionResult execute(TestCase tc, int timeout) throws IOException {
+        if (process == null || !process.isAlive()) {
+            start();
+        }
+
+        toWorker.writeObject(tc);
+        toWorker.writeInt(timeout);
+        toWorker.reset();
+        toWorker.flush();
+
+        Future<Object> answer = reader.submit(() -> fromWorker.readObject());
+        try {
+            ForkedExecutionResult result = (ForkedExecutionResult) answer.get(
+                    timeout + SHUTDOWN_ROUNDS * (long) Properties.SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            if (result.getStalledThreads() > 0) {
+                logger.info("Forked execution worker {} has {} stalled threads, recycling it",
+                        id, result.getStalledThreads());
+                destroy();
+            }
+            return result;
+        } catch (TimeoutException e) {
+            logger.info("Forked execution worker {} did not answer in time, recycling it", id);
+            answer.cancel(true);
+            destroy();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            destroy();
+            throw new IOException("Interrupted while waiting for forked execution worker " + id, e);
+        } catch (ExecutionException e) {
+            destroy();
+            throw new IOException("Forked execution worker " + id + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Starts the worker process and waits until it has set up the SUT
+     */
+    private void start() throws IOException {
+        destroy();
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (String arg : Properties.FORKED_WORKER_JVM_ARGS.trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                command.add(arg);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ForkedExecutionServer.class.getName());
+        command.add(propertiesFile.getAbsolutePath());
+
+        logger.debug("Starting forked execution worker {}: {}", id, command);
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        process = builder.start();
+        restarts++;
+
+        toWorker = new ObjectOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        toWorker.flush();
+
+        Future<Integer> ready = reader.submit(() -> {
+            fromWorker = new ObjectInputStream(new BufferedInputStream(process.getInputStream()));
+            return fromWorker.readInt();
+        });
+        try {
+            if (ready.get(STARTUP_TIMEOUT, TimeUnit.MILLISECONDS) != ForkedExecutionServer.READY) {
+                throw new IOException("Unexpected handshake from forked execution worker " + id);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            destroy();
+            throw new IOException("Interrupted while starting forked execution worker " + id, e);
+        } catch (ExecutionException | TimeoutException e) {
+            ready.cancel(true);
+            destroy();
+            throw new IOException("Cannot start forked execution worker " + id, e);
+        }
+    }
+
+    /**
+     * Kills the worker process, if any. A new one is started on the next
+     * execution.
+     */
+    void destroy() {
+        if (process != null) {
+            process.destroyForcibly();
+            process = null;
+        }
+        closeQuietly(toWorker);
+        closeQuietly(fromWorker);
+        toWorker = null;
+        fromWorker = null;
+    }
+
+    /**
+     * Kills the worker process and stops reading from it
+     */
+    void shutdown() {
+        destroy();
+        reader.shutdownNow();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // the process is gone anyway
+            }
+        }
+    }
+}
@@ -34,11 +34,18 @@ import org.evosuite.testcase.execution.reset.ClassReInitializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <p>
@@ -47,13 +54,31 @@ import java.util.concurrent.*;
  * </p>
  *
  * <p>
+ * In process, tests are run one at a time on a single {@link ExecutionWorker},
+ * which owns the executor thread, the thread group of the SUT threads and the
+ * threads that survived a timeout. The instrumentation state (ExecutionTracer,
+ * Sandbox, Runtime) is process-wide, so in-process executions cannot overlap:
+ * a test that does not terminate holds up every other execution until its
+ * timeout has been handled. Callers can still overlap their own work with
+ * execution through {@link #submit(TestCase)}.
+ * </p>
+ *
+ * <p>
+ * To run tests in parallel, they can be run in separate worker JVMs (see
+ * {@link Properties#FORKED_EXECUTION_WORKERS}). A test that does not
+ * terminate then only costs a restart of its worker. As only a summary of the execution comes back (see
+ * {@link ForkedExecutionResult}), tests are still run in process whenever
+ * execution observers are registered.
+ * </p>
+ *
+ * <p>
  * WARNING: never give "privileged" rights in MSecurityManager to any of the
  * threads generated here
  * </p>
  *
  * @author Gordon Fraser
  */
-public class TestCaseExecutor implements ThreadFactory {
+public class TestCaseExecutor {
 
     /**
      * Used to identify the threads spawn by the SUT
@@ -72,28 +97,63 @@ public class TestCaseExecutor implements ThreadFactory {
 
     private static TestCaseExecutor instance = null;
 
-    private ExecutorService executor;
+    private final ExecutionWorker worker;
+
+    /**
+     * Worker JVMs, see {@link Properties#FORKED_EXECUTION_WORKERS}
+     */
+    private final List<ForkedExecutionWorker> forkedWorkers = new ArrayList<>();
 
-    private Thread currentThread = null;
+    private final BlockingQueue<ForkedExecutionWorker> idleForkedWorkers = new LinkedBlockingQueue<>();
 
-    private ThreadGroup threadGroup = null;
+    /**
+     * Number of forked workers in use, reset to 0 if they cannot be started
+     */
+    private volatile int numForkedWorkers = Properties.FORKED_EXECUTION_WORKERS;
+
+    /**
+     * Configuration of the search, as handed to the forked workers
+     */
+    private File forkedConfiguration = null;
+
+    /**
+     * Held while a test is executed in process, as the worker and the
+     * instrumentation state can only serve one test at a time
+     */
+    private final ReentrantLock sutLock = new ReentrantLock();
+
+    /**
+     * Threads used to serve asynchronous {@link #submit(TestCase)} requests
+     */
+    private ExecutorService dispatcher = null;
 
     // private static ExecutorService executor =
     // Executors.newCachedThreadPool();
 
     private Set<ExecutionObserver> observers;
 
-    private final Set<Thread> stalledThreads = new HashSet<>();
+    /**
+     * Results of previous executions, see {@link Properties#EXECUTION_RESULT_CACHE_SIZE}
+     */
+    private final ExecutionResultCache resultCache =
+            new ExecutionResultCache(Properties.EXECUTION_RESULT_CACHE_SIZE);
+
+    /**
+     * Timeouts learned from previous executions, see {@link Properties#ADAPTIVE_TIMEOUT}
+     */
+    private final AdaptiveTimeoutPolicy timeoutPolicy = new AdaptiveTimeoutPolicy();
 
     /**
-     * Constant <code>timeExecuted=0</code>
+     * Constant <code>timeExecuted=0</code>; only updated through
+     * {@link #countExecution(long)}
      */
-    public static long timeExecuted = 0;
+    public static volatile long timeExecuted = 0;
 
     /**
-     * Constant <code>testsExecuted=0</code>
+     * Constant <code>testsExecuted=0</code>; only updated through
+     * {@link #countExecution(long)}
      */
-    public static int testsExecuted = 0;
+    public static volatile int testsExecuted = 0;
 
     /**
      * Used when we spawn a new thread to give a unique name
@@ -131,8 +191,14 @@ public class TestCaseExecutor implements ThreadFactory {
 
         try {
             TestCaseExecutor executor = getInstance();
+            ExecutionResult cached = executor.getCachedResult(test);
+            if (cached != null) {
+                return cached;
+            }
+
             logger.debug("Executing test");
             result = executor.execute(test);
+            executor.cacheResult(test, result);
 
             MaxStatementsStoppingCondition.statementsExecuted(result.getExecutedStatements());
 
@@ -144,11 +210,64 @@ public class TestCaseExecutor implements ThreadFactory {
         return result;
     }
 
+    /**
+     * Execute a batch of test cases, one after the other, on the same worker
+     *
+     * @param tests The test cases to execute
+     * @return Results of the executions, in the same order as {@code tests}
+     */
+    public static List<ExecutionResult> runTests(List<TestCase> tests) {
+
+        List<ExecutionResult> results = new ArrayList<>(tests.size());
+
+        try {
+            TestCaseExecutor executor = getInstance();
+
+            // only execute the tests whose result is not cached
+            List<TestCase> toExecute = new ArrayList<>(tests.size());
+            for (TestCase test : tests) {
+                ExecutionResult cached = executor.getCachedResult(test);
+                results.add(cached);
+                if (cached == null) {
+                    toExecute.add(test);
+                }
+            }
+
+            logger.debug("Executing batch of {} tests", toExecute.size());
+            Iterator<ExecutionResult> executed = executor.executeBatch(toExecute).iterator();
+
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    ExecutionResult result = executed.next();
+                    executor.cacheResult(tests.get(i), result);
+                    MaxStatementsStoppingCondition.statementsExecuted(result.getExecutedStatements());
+                    results.set(i, result);
+                }
+            }
+
+        } catch (Exception e) {
+            logger.error("TG: Exception caught: ", e);
+            throw new Error(e);
+        }
+
+        return results;
+    }
+
     private TestCaseExecutor() {
-        executor = Executors.newSingleThreadExecutor(this);
+        worker = new ExecutionWorker(this);
         newObservers();
     }
 
+    /**
+     * Records that a test has been executed, from whichever thread executed it
+     *
+     * @param time the execution time of the test, in milliseconds
+     */
+    private static synchronized void countExecution(long time) {
+        timeExecuted += time;
+        testsExecuted++;
+    }
+
     public static class TimeoutExceeded extends RuntimeException {
         private static final long serialVersionUID = -5314228165430676893L;
     }
@@ -169,9 +288,17 @@ public class TestCaseExecutor implements ThreadFactory {
      */
     public static void pullDown() {
         if (instance != null) {
-            if (instance.executor != null) {
-                instance.executor.shutdownNow();
-                instance.executor = null;
+            if (instance.resultCache.isEnabled()) {
+                logger.info("Execution result cache hit rate: {} ({})",
+                        instance.resultCache.getHitRate(), instance.resultCache);
+            }
+            instance.worker.shutdown();
+            synchronized (instance) {
+                instance.forkedWorkers.forEach(ForkedExecutionWorker::shutdown);
+                if (instance.dispatcher != null) {
+                    instance.dispatcher.shutdownNow();
+                    instance.dispatcher = null;
+                }
             }
         }
     }
@@ -183,12 +310,7 @@ public class TestCaseExecutor implements ThreadFactory {
      */
     public static void initExecutor() {
         if (instance != null) {
-            if (instance.executor == null) {
-                logger.info("TestCaseExecutor instance is non-null, but its actual executor is null");
-                instance.executor = Executors.newSingleThreadExecutor(instance);
-            } else {
-                instance.executor = Executors.newSingleThreadExecutor(instance);
-            }
+            instance.worker.init();
         }
     }
 
@@ -204,6 +326,7 @@ public class TestCaseExecutor implements ThreadFactory {
         if (!observers.contains(observer)) {
             logger.debug("Adding observer");
             observers.add(observer);
+            resultCache.clear();
         }
         // FIXXME: Find proper solution for this
         // for (ExecutionObserver o : observers)
@@ -224,6 +347,7 @@ public class TestCaseExecutor implements ThreadFactory {
         if (observers.contains(observer)) {
             logger.debug("Removing observer");
             observers.remove(observer);
+            resultCache.clear();
         }
     }
 
@@ -234,6 +358,7 @@ public class TestCaseExecutor implements ThreadFactory {
      */
     public void newObservers() {
         observers = new LinkedHashSet<>();
+        resultCache.clear();
     }
 
     public Set<ExecutionObserver> getExecutionObservers() {
@@ -247,14 +372,23 @@ public class TestCaseExecutor implements ThreadFactory {
     }
 
     /**
-     * Execute a test case on a new scope
+     * Execute a test case on a new scope, with the timeout given by the
+     * {@link AdaptiveTimeoutPolicy} (i.e., {@link Properties#TIMEOUT} unless
+     * adaptive timeouts are enabled). A test that exceeds a learned timeout
+     * is reported as timed out at that deadline, unless the policy asks for
+     * another run with a longer, bounded timeout (see
+     * {@link AdaptiveTimeoutPolicy#getRetryTimeout(TestCase, int)}).
      *
      * @param tc a {@link TestCase} object.
      * @return a {@link ExecutionResult} object.
      */
     public ExecutionResult execute(TestCase tc) {
-        ExecutionResult result = execute(tc, Properties.TIMEOUT);
-        return result;
+        MaxTestsStoppingCondition.testExecuted();
+        try {
+            return runWithAdaptiveTimeout(tc);
+        } finally {
+            TestCluster.getInstance().handleRuntimeAccesses(tc);
+        }
     }
 
     /**
@@ -264,8 +398,112 @@ public class TestCaseExecutor implements ThreadFactory {
      * @return a {@link ExecutionResult} object.
      */
     public ExecutionResult execute(TestCase tc, int timeout) {
+        MaxTestsStoppingCondition.testExecuted();
+        try {
+            return run(tc, timeout);
+        } finally {
+            TestCluster.getInstance().handleRuntimeAccesses(tc);
+        }
+    }
+
+    /**
+     * Execute a test case with the timeout given by the
+     * {@link AdaptiveTimeoutPolicy}, and once more if the policy asks for it
+     * after a timeout. Neither the search budget nor the test cluster are
+     * touched, so this can run on any thread.
+     */
+    private ExecutionResult runWithAdaptiveTimeout(TestCase tc) {
+        int timeout = timeoutPolicy.getTimeout(tc);
+        ExecutionResult result = run(tc, timeout);
+        if (result.hasTimeout()) {
+            int retryTimeout = timeoutPolicy.getRetryTimeout(tc, timeout);
+            if (retryTimeout > timeout) {
+                logger.debug("Test exceeded the adaptive timeout of {} ms, executing it again with {} ms",
+                        timeout, retryTimeout);
+                result = run(tc, retryTimeout);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Execute a test case, either in a forked worker or in process, without
+     * counting it against the search budget
+     */
+    private ExecutionResult run(TestCase tc, int timeout) {
+        if (isForked()) {
+            return executeForked(tc, timeout);
+        }
+        return executeInProcess(tc, timeout);
+    }
+
+    /**
+     * Execute a batch of test cases, each on a new scope. The lock on the
+     * worker and the timeout handler are set up once for the whole batch;
+     * only the state that has to differ between two tests (trace, observers,
+     * runtime, input stubs) is reset per test.
+     * The sandbox is still entered per test, as the input stubs must be
+     * reset outside of it.
+     * <p>
+     * A test whose execution fails with an exception does not abort the
+     * batch: it gets an empty result and the remaining tests are executed,
+     * as when each test is run through
+     * {@link org.evosuite.testsuite.TestSuiteFitnessFunction#runTest(TestCase)}.
+     *
+     * @param tests a {@link List} of {@link TestCase} objects.
+     * @return the {@link ExecutionResult}s, in the same order as {@code tests}
+     */
+    public List<ExecutionResult> executeBatch(List<TestCase> tests) {
+        List<ExecutionResult> results = new ArrayList<>(tests.size());
+        if (tests.isEmpty()) {
+            return results;
+        }
+        if (isForked()) {
+            for (TestCase tc : tests) {
+                results.add(execute(tc));
+            }
+            return results;
+        }
+
+        sutLock.lock();
+        try {
+            worker.bindTracer();
+            TimeoutHandler<ExecutionResult> handler = new TimeoutHandler<>();
+            for (TestCase tc : tests) {
+                MaxTestsStoppingCondition.testExecuted();
+                try {
+                    int timeout = timeoutPolicy.getTimeout(tc);
+                    ExecutionResult result = execute(handler, tc, timeout);
+                    if (result.hasTimeout()) {
+                        int retryTimeout = timeoutPolicy.getRetryTimeout(tc, timeout);
+                        if (retryTimeout > timeout) {
+                            result = execute(handler, tc, retryTimeout);
+                        }
+                    }
+                    results.add(result);
+                } catch (Exception e) {
+                    logger.warn("TG: Exception caught: " + e.getMessage(), e);
+                    ExecutionResult result = new ExecutionResult(tc, null);
+                    result.setTrace(ExecutionTracer.getExecutionTracer().getTrace());
+                    ExecutionTracer.getExecutionTracer().clear();
+                    results.add(result);
+                } finally {
+                    TestCluster.getInstance().handleRuntimeAccesses(tc);
+                }
+            }
+        } finally {
+            sutLock.unlock();
+        }
+        return results;
+    }
+
+    /**
+     * Execute a test case on a new scope, and reset the static state of the
+     * SUT afterwards if needed
+     */
+    private ExecutionResult execute(TimeoutHandler<ExecutionResult> handler, TestCase tc, int timeout) {
         Scope scope = new Scope();
-        ExecutionResult result = execute(tc, scope, timeout);
+        ExecutionResult result = execute(handler, tc, scope, timeout);
 
         if (Properties.RESET_STATIC_FIELDS) {
             logger.debug("Resetting classes after execution");
@@ -274,27 +512,276 @@ public class TestCaseExecutor implements ThreadFactory {
         return result;
     }
 
+    /**
+     * Execute a test case asynchronously on a dispatcher thread. The returned
+     * {@link Submission} yields the same result {@link #runTest(TestCase)}
+     * would have produced.
+     * <p>
+     * Only the execution itself runs on the dispatcher thread. The test is
+     * counted against {@link MaxTestsStoppingCondition} by the calling
+     * thread, and the executed statements, the result cache and the runtime
+     * accesses of the test cluster are updated by the thread that calls
+     * {@link Submission#get()}, so that the search never shares them with a
+     * dispatcher thread.
+     *
+     * @param tc a {@link TestCase} object.
+     * @return a {@link Submission} of the {@link ExecutionResult}.
+     */
+    public Submission submit(TestCase tc) {
+        ExecutionResult cached = getCachedResult(tc);
+        if (cached != null) {
+            return new Submission(tc, CompletableFuture.completedFuture(cached), false);
+        }
+        MaxTestsStoppingCondition.testExecuted();
+        return new Submission(tc, getDispatcher().submit(() -> runWithAdaptiveTimeout(tc)), true);
+    }
+
+    /**
+     * A test execution started by {@link #submit(TestCase)}
+     */
+    public final class Submission {
+
+        private final TestCase test;
+
+        private final Future<ExecutionResult> execution;
+
+        /**
+         * Whether the bookkeeping of a fresh execution is still to be done
+         */
+        private boolean pending;
+
+        private Submission(TestCase test, Future<ExecutionResult> execution, boolean pending) {
+            this.test = test;
+            this.execution = execution;
+            this.pending = pending;
+        }
+
+        /**
+         * Waits for the execution to finish, and completes its bookkeeping
+         * on the calling thread
+         *
+         * @return the {@link ExecutionResult} of the test
+         * @throws InterruptedException if interrupted while waiting
+         * @throws ExecutionException   if the execution failed
+         */
+        public ExecutionResult get() throws InterruptedException, ExecutionException {
+            ExecutionResult result;
+            try {
+                result = execution.get();
+            } catch (ExecutionException e) {
+                if (pending) {
+                    pending = false;
+                    TestCluster.getInstance().handleRuntimeAccesses(test);
+                }
+                throw e;
+            }
+            if (pending) {
+                pending = false;
+                TestCluster.getInstance().handleRuntimeAccesses(test);
+                cacheResult(test, result);
+                MaxStatementsStoppingCondition.statementsExecuted(result.getExecutedStatements());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Looks up the cached result of a test (see {@link ExecutionResultCache}). The cache is not
+     * consulted while execution observers are registered, as they have to see every execution.
+     * A hit is counted against the search budget like the execution it replaces.
+     *
+     * @param tc the test about to be executed
+     * @return the cached result, or {@code null} if the test has to be executed
+     */
+    private ExecutionResult getCachedResult(TestCase tc) {
+        if (!observers.isEmpty()) {
+            return null;
+        }
+        ExecutionResult cached = resultCache.get(tc);
+        if (cached != null) {
+            logger.debug("Reusing cached execution result");
+            MaxTestsStoppingCondition.testExecuted();
+            MaxStatementsStoppingCondition.statementsExecuted(cached.getExecutedStatements());
+        }
+        return cached;
+    }
+
+    /**
+     * Stores the result of an execution in the cache, unless execution observers are registered
+     */
+    private void cacheResult(TestCase tc, ExecutionResult result) {
+        if (observers.isEmpty()) {
+            resultCache.put(tc, result);
+        }
+    }
+
+    private synchronized ExecutorService getDispatcher() {
+        if (dispatcher == null) {
+            dispatcher = Executors.newFixedThreadPool(Math.max(1, numForkedWorkers), r -> {
+                Thread t = new Thread(r, "TEST_EXECUTION_DISPATCHER");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return dispatcher;
+    }
+
+    /**
+     * @return whether tests are executed in forked worker JVMs
+     */
+    private boolean isForked() {
+        return numForkedWorkers > 0 && observers.isEmpty();
+    }
+
+    /**
+     * Execute a test case in the next idle forked worker JVM. A test that
+     * exceeds its timeout in the worker comes back with the partial trace
+     * recorded up to the timeout, as in process. Only if the worker itself
+     * does not answer in time (see {@link ForkedExecutionWorker}) is the
+     * result the one of a test that timed out with an empty trace, as the
+     * trace is lost with the worker.
+     * If no worker can be started, the test is run in process instead.
+     *
+     * @param tc      a {@link TestCase} object.
+     * @param timeout the timeout of the test, in milliseconds
+     * @return a {@link ExecutionResult} object.
+     */
+    private ExecutionResult executeForked(TestCase tc, int timeout) {
+        ForkedExecutionWorker worker;
+        try {
+            worker = acquireForkedWorker();
+        } catch (IOException e) {
+            logger.warn("Cannot set up forked execution workers, executing tests in process: " + e.getMessage());
+            numForkedWorkers = 0;
+            return executeInProcess(tc, timeout);
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            ForkedExecutionResult summary = worker.execute(tc, timeout);
+            long endTime = System.currentTimeMillis();
+            ExecutionResult result;
+            if (summary == null) {
+                if (Properties.LOG_TIMEOUT) {
+                    logger.warn("Timeout occurred for " + Properties.TARGET_CLASS);
+                }
+                result = new ExecutionResult(tc, null);
+                result.reportNewThrownException(tc.size(), new TimeoutExceeded());
+                result.setTrace(new ExecutionTraceImpl());
+                timeoutPolicy.recordTimeout(tc, timeout);
+            } else {
+                result = summary.toExecutionResult(tc);
+                if (summary.hasTimeout()) {
+                    timeoutPolicy.recordTimeout(tc, timeout);
+                } else {
+                    timeoutPolicy.record(tc, endTime - startTime);
+                }
+            }
+            countExecution(endTime - startTime);
+            return result;
+        } catch (IOException e) {
+            logger.warn("Forked execution worker failed, executing test in process: " + e.getMessage());
+            return executeInProcess(tc, timeout);
+        } finally {
+            idleForkedWorkers.add(worker);
+        }
+    }
+
+    /**
+     * Execute a test case in the search JVM, regardless of forked workers
+     */
+    private ExecutionResult executeInProcess(TestCase tc, int timeout) {
+        sutLock.lock();
+        try {
+            worker.bindTracer();
+            return execute(new TimeoutHandler<>(), tc, timeout);
+        } finally {
+            sutLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a forked worker is idle and takes it out of rotation. The
+     * workers are created on first use, as they need the final configuration
+     * of the search.
+     *
+     * @return an idle {@link ForkedExecutionWorker}
+     */
+    private ForkedExecutionWorker acquireForkedWorker() throws IOException {
+        synchronized (this) {
+            if (forkedConfiguration == null) {
+                forkedConfiguration = writeForkedConfiguration();
+                for (int i = 0; i < numForkedWorkers; i++) {
+                    ForkedExecutionWorker worker = new ForkedExecutionWorker(i, forkedConfiguration);
+                    forkedWorkers.add(worker);
+                    idleForkedWorkers.add(worker);
+                }
+            }
+        }
+        try {
+            return idleForkedWorkers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a forked execution worker", e);
+        }
+    }
+
+    /**
+     * Writes all parameters of the search into a temporary properties file,
+     * in the format {@link Properties#loadProperties(String, boolean)} reads
+     */
+    private static File writeForkedConfiguration() throws IOException {
+        java.util.Properties configuration = new java.util.Properties();
+        for (String key : Properties.getParameters()) {
+            try {
+                String value = Properties.getStringValue(key);
+                if (value.equals("null")) {
+                    continue;
+                }
+                if (Properties.getType(key).isArray()) {
+                    // arrays are written with ';' but read with ':'
+                    value = value.replace(';', ':');
+                }
+                configuration.setProperty(key, value);
+            } catch (Properties.NoSuchParameterException | IllegalAccessException e) {
+                logger.warn("Cannot hand parameter " + key + " to forked execution workers: " + e.getMessage());
+            }
+        }
+        File file = File.createTempFile("evosuite-forked-worker", ".properties");
+        file.deleteOnExit();
+        try (OutputStream out = new FileOutputStream(file)) {
+            configuration.store(out, "Configuration of forked execution workers");
+        }
+        return file;
+    }
+
+    /**
+     * @return a unique number to name the next thread spawned by the worker
+     */
+    synchronized int nextThreadId() {
+        return threadCounter++;
+    }
+
     /**
      * Execute a test case on an existing scope
      *
-     * @param tc    a {@link TestCase} object.
-     * @param scope a {@link org.evosuite.testcase.execution.Scope} object.
+     * @param handler the {@link TimeoutHandler} used to run the test
+     * @param tc      a {@link TestCase} object.
+     * @param scope   a {@link org.evosuite.testcase.execution.Scope} object.
      * @return a {@link ExecutionResult} object.
      */
     @SuppressWarnings("deprecation")
-    private ExecutionResult execute(TestCase tc, Scope scope, int timeout) {
+    private ExecutionResult execute(TimeoutHandler<ExecutionResult> handler, TestCase tc, Scope scope,
+                                    int timeout) {
         ExecutionTracer.getExecutionTracer().clear();
 
         // TODO: Re-insert!
         resetObservers();
         ExecutionObserver.setCurrentTest(tc);
-        MaxTestsStoppingCondition.testExecuted();
         Runtime.getInstance().resetRuntime();
 
         long startTime = System.currentTimeMillis();
 
-        TimeoutHandler<ExecutionResult> handler = new TimeoutHandler<>();
-
         // #TODO steenbuck could be nicer (TestRunnable should be an interface
         TestRunnable callable = new TestRunnable(tc, scope, observers);
         callable.storeCurrentThreads();
@@ -320,13 +807,13 @@ public class TestCaseExecutor implements ThreadFactory {
             Sandbox.goingToExecuteSUTCode();
             TestGenerationContext.getInstance().goingToExecuteSUTCode();
             try {
-                result = handler.execute(callable, executor, timeout, Properties.CPU_TIMEOUT);
+                result = handler.execute(callable, worker.getExecutor(), timeout, Properties.CPU_TIMEOUT);
             } finally {
                 Sandbox.doneWithExecutingSUTCode();
                 TestGenerationContext.getInstance().doneWithExecutingSUTCode();
             }
 
-            PermissionStatistics.getInstance().countThreads(threadGroup.activeCount());
+            PermissionStatistics.getInstance().countThreads(worker.getThreadGroup().activeCount());
             result.setSecurityException(PermissionStatistics.getInstance().getAndResetExceptionInfo());
             /*
              * TODO: this will need proper care when we ll start to handle
@@ -340,8 +827,8 @@ public class TestCaseExecutor implements ThreadFactory {
              */
 
             long endTime = System.currentTimeMillis();
-            timeExecuted += endTime - startTime;
-            testsExecuted++;
+            countExecution(endTime - startTime);
+            timeoutPolicy.record(tc, endTime - startTime);
             return result;
         } catch (ThreadDeath t) {
             logger.warn("Caught ThreadDeath during test execution");
@@ -387,6 +874,7 @@ public class TestCaseExecutor implements ThreadFactory {
             if (Properties.LOG_TIMEOUT) {
                 logger.warn("Timeout occurred for " + Properties.TARGET_CLASS);
             }
+            timeoutPolicy.recordTimeout(tc, timeout);
             logger.info("TimeoutException, need to stop runner", e1);
             ExecutionTracer.setKillSwitch(true);
             try {
@@ -399,12 +887,12 @@ public class TestCaseExecutor implements ThreadFactory {
 
             if (!callable.isRunFinished()) {
                 logger.info("Cancelling thread:");
-                for (StackTraceElement elem : currentThread.getStackTrace()) {
+                for (StackTraceElement elem : worker.getCurrentThread().getStackTrace()) {
                     logger.info(elem.toString());
                 }
                 logger.info(tc.toCode());
                 boolean loopCounter = LoopCounter.getInstance().isActivated();
-                while (isInStaticInit()) {
+                while (worker.isInStaticInit()) {
                     // LoopCounter and killswitch check the stacktrace often
                     // and that is costly - to speed things up we deactivate it
                     // until we're outside the static constructor
@@ -413,7 +901,7 @@ public class TestCaseExecutor implements ThreadFactory {
                     logger.info("Run still not finished, but awaiting for static initializer to finish.");
 
                     try {
-                        executor.awaitTermination(Properties.SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+                        worker.getExecutor().awaitTermination(Properties.SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
                     } catch (InterruptedException e) {
                         logger.info("Interrupted");
                         e.printStackTrace();
@@ -426,7 +914,7 @@ public class TestCaseExecutor implements ThreadFactory {
                     handler.getLastTask().cancel(true);
                     logger.info("Run not finished, waiting...");
                     try {
-                        executor.awaitTermination(Properties.SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+                        worker.getExecutor().awaitTermination(Properties.SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
                     } catch (InterruptedException e) {
                         logger.info("Interrupted");
                         e.printStackTrace();
@@ -436,14 +924,15 @@ public class TestCaseExecutor implements ThreadFactory {
                 if (!callable.isRunFinished()) {
                     logger.info("Run still not finished, replacing executor.");
                     try {
-                        executor.shutdownNow();
+                        worker.getExecutor().shutdownNow();
+                        Thread currentThread = worker.getCurrentThread();
                         if (currentThread.isAlive()) {
                             logger.info("Thread survived - unsafe operation.");
                             for (StackTraceElement element : currentThread.getStackTrace()) {
                                 logger.info(element.toString());
                             }
                             logger.info("Killing thread:");
-                            for (StackTraceElement elem : currentThread.getStackTrace()) {
+                            for (StackTraceElement elem : worker.getCurrentThread().getStackTrace()) {
                                 logger.info(elem.toString());
                             }
                             currentThread.stop();
@@ -454,10 +943,10 @@ public class TestCaseExecutor implements ThreadFactory {
                         logger.info("Throwable: " + t);
                     }
                     ExecutionTracer.disable();
-                    executor = Executors.newSingleThreadExecutor(this);
+                    worker.replaceExecutor();
                 }
             } else {
-                logger.info("Run is finished - " + currentThread.isAlive() + ": " + getNumStalledThreads());
+                logger.info("Run is finished - " + worker.getCurrentThread().isAlive() + ": " + getNumStalledThreads());
 
             }
             ExecutionTracer.disable();
@@ -480,27 +969,11 @@ public class TestCaseExecutor implements ThreadFactory {
 
             return result;
         } finally {
-            if (threadGroup != null)
-                PermissionStatistics.getInstance().countThreads(threadGroup.activeCount());
-            TestCluster.getInstance().handleRuntimeAccesses(tc);
+            if (worker.getThreadGroup() != null)
+                PermissionStatistics.getInstance().countThreads(worker.getThreadGroup().activeCount());
         }
     }
 
-    private boolean isInStaticInit() {
-        for (StackTraceElement elem : currentThread.getStackTrace()) {
-            if (elem.getMethodName().equals("<clinit>"))
-                return true;
-            if (elem.getMethodName().equals("loadClass") && elem.getClassName()
-                    .equals(org.evosuite.instrumentation.InstrumentingClassLoader.class.getCanonicalName()))
-                return true;
-            // CFontManager is responsible for loading fonts
-            // which can take seconds
-            if (elem.getClassName().equals("sun.font.CFontManager"))
-                return true;
-        }
-        return false;
-    }
-
     /**
      * <p>
      * getNumStalledThreads
@@ -509,37 +982,27 @@ public class TestCaseExecutor implements ThreadFactory {
      * @return a int.
      */
     public int getNumStalledThreads() {
-        stalledThreads.removeIf(t -> !t.isAlive());
-        return stalledThreads.size();
+        return worker.getNumStalledThreads();
+    }
+
+    public void setExecutionObservers(Set<ExecutionObserver> observers) {
+        this.observers = observers;
+        resultCache.clear();
     }
 
     /**
-     * {@inheritDoc}
+     * @return the cache of execution results consulted by {@link #runTest(TestCase)}, which also
+     * keeps track of its hit and miss rates
      */
-    @Override
-    public Thread newThread(Runnable r) {
-        if (currentThread != null && currentThread.isAlive()) {
-            currentThread.setPriority(Thread.MIN_PRIORITY);
-            stalledThreads.add(currentThread);
-            logger.info("Current number of stalled threads: " + getNumStalledThreads());
-        } else {
-            logger.info("No stalled threads");
-        }
-
-        if (threadGroup != null) {
-            PermissionStatistics.getInstance().countThreads(threadGroup.activeCount());
-        }
-        threadGroup = new ThreadGroup(TEST_EXECUTION_THREAD_GROUP);
-        currentThread = new Thread(threadGroup, r);
-        currentThread.setName(TEST_EXECUTION_THREAD + "_" + threadCounter);
-        threadCounter++;
-        currentThread.setContextClassLoader(TestGenerationContext.getInstance().getClassLoaderForSUT());
-        ExecutionTracer.setThread(currentThread);
-        return currentThread;
+    public ExecutionResultCache getResultCache() {
+        return resultCache;
     }
 
-    public void setExecutionObservers(Set<ExecutionObserver> observers) {
-        this.observers = observers;
+    /**
+     * @return the policy deciding the timeout of each test
+     */
+    public AdaptiveTimeoutPolicy getTimeoutPolicy() {
+        return timeoutPolicy;
     }
 
 }
@@ -22,6 +22,7 @@ package org.evosuite.testsuite;
 import org.evosuite.ga.FitnessFunction;
 import org.evosuite.ga.stoppingconditions.MaxStatementsStoppingCondition;
 import org.evosuite.testcase.TestCase;
+import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.execution.ExecutionResult;
 import org.evosuite.testcase.execution.ExecutionTracer;
 import org.evosuite.testcase.execution.TestCaseExecutor;
@@ -29,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -80,6 +82,11 @@ public abstract class TestSuiteFitnessFunction extends FitnessFunction<TestSuite
      * <p>
      * runTestSuite
      * </p>
+     * <p>
+     * The changed tests are executed in one batch (see {@link TestCaseExecutor#runTests(List)}),
+     * except for those whose execution is customized by overriding
+     * {@link TestChromosome#executeForFitnessFunction(TestSuiteFitnessFunction)} or
+     * {@link #runTest(TestCase)}, which are executed one by one through these methods.
      *
      * @param suite a {@link org.evosuite.testsuite.AbstractTestSuiteChromosome}
      *              object.
@@ -87,10 +94,20 @@ public abstract class TestSuiteFitnessFunction extends FitnessFunction<TestSuite
      */
     protected List<ExecutionResult> runTestSuite(TestSuiteChromosome suite) {
         List<ExecutionResult> results = new ArrayList<>();
+        List<TestChromosome> batch = new ArrayList<>();
+        final boolean defaultRunTest = isDeclaredBy(getClass(), TestSuiteFitnessFunction.class,
+                "runTest", TestCase.class);
 
         for (TestChromosome chromosome : suite.getTestChromosomes()) {
             // Only execute test if it hasn't been changed
             if (chromosome.isChanged() || chromosome.getLastExecutionResult() == null) {
+                if (defaultRunTest && isDeclaredBy(chromosome.getClass(), TestChromosome.class,
+                        "executeForFitnessFunction", TestSuiteFitnessFunction.class)) {
+                    batch.add(chromosome);
+                    results.add(null); // set once the batch is executed
+                    continue;
+                }
+
                 ExecutionResult result = chromosome.executeForFitnessFunction(this);
 
                 if (result != null) {
@@ -103,11 +120,40 @@ public abstract class TestSuiteFitnessFunction extends FitnessFunction<TestSuite
                 results.add(chromosome.getLastExecutionResult());
             }
         }
+
+        if (!batch.isEmpty()) {
+            List<TestCase> tests = new ArrayList<>(batch.size());
+            batch.forEach(chromosome -> tests.add(chromosome.getTestCase()));
+            Iterator<ExecutionResult> executed = TestCaseExecutor.runTests(tests).iterator();
+            Iterator<TestChromosome> chromosomes = batch.iterator();
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    ExecutionResult result = executed.next();
+                    TestChromosome chromosome = chromosomes.next();
+                    chromosome.setLastExecutionResult(result);
+                    chromosome.setChanged(false);
+                    results.set(i, result);
+                }
+            }
+        }
         suite.setChanged(false);
 
         return results;
     }
 
+    /**
+     * Whether the public method with the given signature of {@code type} is the one declared by
+     * {@code declaringClass}, i.e., is not overridden by {@code type}
+     */
+    private static boolean isDeclaredBy(Class<?> type, Class<?> declaringClass, String name,
+                                        Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes).getDeclaringClass() == declaringClass;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
 
 
     /* (non-Javadoc)